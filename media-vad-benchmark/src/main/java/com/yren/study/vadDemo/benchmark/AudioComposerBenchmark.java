@@ -0,0 +1,81 @@
+package com.yren.study.vadDemo.benchmark;
+
+import com.yren.study.vadDemo.audio.AudioComposer;
+import com.yren.study.vadDemo.result.VoiceSegment;
+import com.yren.study.vadDemo.vad.SileroVAD;
+import com.yren.study.vadDemo.vad.VoiceSegmentExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 音频合成基准：将示例音频的人声片段写出为wav文件
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AudioComposerBenchmark {
+
+    private final AudioComposer composer = new AudioComposer();
+    private float[] audio;
+    private List<VoiceSegment> segments;
+    private File output;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setup() throws Exception {
+        audio = BenchmarkResources.loadAudio();
+        SileroVAD vad = new SileroVAD();
+        vad.loadModel(BenchmarkResources.modelPath());
+        try {
+            segments = new VoiceSegmentExtractor().extractVoiceSegments(vad.detectVoiceTimeline(audio), 0.5f);
+        } finally {
+            vad.close();
+        }
+        output = Files.createTempFile("vad-benchmark-compose-", ".wav").toFile();
+
+        // AudioComposer 会逐片段打印日志，基准测试期间屏蔽标准输出
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @Benchmark
+    public File composeVoiceSegments() throws Exception {
+        composer.composeVoiceSegments(audio, segments, output.getPath(), 0.2f);
+        return output;
+    }
+
+    @Benchmark
+    public File composeVoiceSegmentsWithGap() throws Exception {
+        composer.composeVoiceSegmentsWithGap(audio, segments, output.getPath(), 0.5f);
+        return output;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        Files.deleteIfExists(output.toPath());
+    }
+}
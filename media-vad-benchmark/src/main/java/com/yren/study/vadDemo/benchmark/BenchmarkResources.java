@@ -0,0 +1,54 @@
+package com.yren.study.vadDemo.benchmark;
+
+import com.yren.study.vadDemo.audio.AudioPreprocessor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * 基准测试使用的模型与音频资源
+ * 默认从 media-vad-project 的classpath中解压到临时文件，
+ * 也可以通过 -Dvad.model.path / -Dvad.wav.path 指定本地文件
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+final class BenchmarkResources {
+    private static final String MODEL_RESOURCE = "/model/silero_vad.onnx";
+    private static final String AUDIO_RESOURCE = "/audio/元数据.wav";
+
+    private BenchmarkResources() {
+    }
+
+    static String modelPath() throws IOException {
+        String path = System.getProperty("vad.model.path");
+        return path != null ? path : extract(MODEL_RESOURCE, ".onnx");
+    }
+
+    static String audioPath() throws IOException {
+        String path = System.getProperty("vad.wav.path");
+        return path != null ? path : extract(AUDIO_RESOURCE, ".wav");
+    }
+
+    /**
+     * @return 预处理后的16kHz单声道音频
+     */
+    static float[] loadAudio() throws Exception {
+        return new AudioPreprocessor().loadAndPreprocessWav(audioPath());
+    }
+
+    private static String extract(String resource, String suffix) throws IOException {
+        try (InputStream in = BenchmarkResources.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("classpath中找不到资源: " + resource);
+            }
+            Path file = Files.createTempFile("vad-benchmark-", suffix);
+            file.toFile().deleteOnExit();
+            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+            return file.toString();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.yren.study.vadDemo.benchmark;
+
+import com.yren.study.vadDemo.result.VadTimeline;
+import com.yren.study.vadDemo.vad.ParallelSileroVAD;
+import com.yren.study.vadDemo.vad.SileroVAD;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 整段检测基准：对示例音频 元数据.wav 执行完整的VAD检测，比较串行与分片并行模式
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DetectVoiceActivityBenchmark {
+
+    @Param({"serial", "parallel"})
+    private String engine;
+
+    private SileroVAD vad;
+    private ParallelSileroVAD parallelVad;
+    private float[] audio;
+
+    @Setup
+    public void setup() throws Exception {
+        vad = new SileroVAD();
+        vad.loadModel(BenchmarkResources.modelPath());
+        // 示例音频较短，使用2秒分片、0.5秒预热
+        parallelVad = new ParallelSileroVAD(vad.getModel(), 2f, 0.5f, ForkJoinPool.commonPool());
+        audio = BenchmarkResources.loadAudio();
+    }
+
+    @Benchmark
+    public VadTimeline detectVoiceActivity() throws Exception {
+        if ("parallel".equals(engine)) {
+            return parallelVad.detectVoiceTimeline(audio);
+        }
+        vad.resetState();
+        return vad.detectVoiceTimeline(audio);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        vad.close();
+    }
+}
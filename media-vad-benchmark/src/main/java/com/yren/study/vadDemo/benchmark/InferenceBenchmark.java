@@ -0,0 +1,60 @@
+package com.yren.study.vadDemo.benchmark;
+
+import com.yren.study.vadDemo.vad.SileroVAD;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单窗口推理基准：SileroVAD 每处理一个512样本窗口的吞吐与延迟
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InferenceBenchmark {
+
+    private SileroVAD vad;
+    private float[] audio;
+    private int windowSize;
+    private int offset;
+
+    @Setup
+    public void setup() throws Exception {
+        vad = new SileroVAD();
+        vad.loadModel(BenchmarkResources.modelPath());
+        audio = BenchmarkResources.loadAudio();
+        windowSize = vad.getWindowSizeSamples();
+    }
+
+    @Benchmark
+    public float processWindow() throws Exception {
+        // 按顺序循环读取真实音频，保证状态与输入分布接近实际使用
+        if (offset + windowSize > audio.length) {
+            offset = 0;
+        }
+        float score = vad.processWindow(audio, offset);
+        offset += windowSize;
+        return score;
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        vad.close();
+    }
+}
@@ -0,0 +1,100 @@
+package com.yren.study.vadDemo.benchmark;
+
+import com.yren.study.vadDemo.audio.AudioPreprocessor;
+import com.yren.study.vadDemo.audio.PcmConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PCM转换基准：逐字节标量循环与 {@link PcmConverter} 批量转换的吞吐与分配对比
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PcmConversionBenchmark {
+
+    // 样本数：一个推理窗口、100ms采集帧、1分钟音频
+    @Param({"512", "1600", "960000"})
+    private int samples;
+
+    private AudioPreprocessor preprocessor;
+    private byte[] pcmBytes;
+    private float[] floats;
+    private ByteBuffer pcmOut;
+    private ShortBuffer pcmOutSamples;
+
+    @Setup
+    public void setup() {
+        preprocessor = new AudioPreprocessor();
+        pcmBytes = new byte[samples * 2];
+        new Random(42).nextBytes(pcmBytes);
+        floats = new float[samples];
+        PcmConverter.pcm16ToFloat(pcmBytes, 0, pcmBytes.length, floats, 0);
+        pcmOut = ByteBuffer.allocateDirect(samples * 2).order(ByteOrder.LITTLE_ENDIAN);
+        pcmOutSamples = pcmOut.asShortBuffer();
+    }
+
+    @Benchmark
+    public float[] bytesToNormalizedFloat() {
+        return preprocessor.bytesToNormalizedFloat(pcmBytes);
+    }
+
+    /**
+     * 基线：原先采集与解码中的逐字节拼接循环，写入已有数组
+     */
+    @Benchmark
+    public float[] pcm16ToFloatScalar() {
+        float[] dest = floats;
+        for (int i = 0; i < samples; i++) {
+            short sample = (short) ((pcmBytes[i * 2 + 1] << 8) | (pcmBytes[i * 2] & 0xFF));
+            dest[i] = sample / 32768.0f;
+        }
+        return dest;
+    }
+
+    @Benchmark
+    public float[] pcm16ToFloatInPlace() {
+        PcmConverter.pcm16ToFloat(pcmBytes, 0, pcmBytes.length, floats, 0);
+        return floats;
+    }
+
+    /**
+     * 基线：原先WAV写出中的逐样本 putShort 循环
+     */
+    @Benchmark
+    public ByteBuffer floatToPcm16Scalar() {
+        pcmOut.clear();
+        for (int i = 0; i < samples; i++) {
+            pcmOut.putShort((short) (floats[i] * 32767.0f));
+        }
+        return pcmOut;
+    }
+
+    @Benchmark
+    public ShortBuffer floatToPcm16Bulk() {
+        pcmOutSamples.clear();
+        PcmConverter.floatToPcm16(floats, 0, samples, pcmOutSamples);
+        return pcmOutSamples;
+    }
+}
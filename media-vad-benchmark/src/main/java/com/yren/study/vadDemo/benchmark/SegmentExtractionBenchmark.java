@@ -0,0 +1,67 @@
+package com.yren.study.vadDemo.benchmark;
+
+import com.yren.study.vadDemo.result.VadResult;
+import com.yren.study.vadDemo.result.VadTimeline;
+import com.yren.study.vadDemo.result.VoiceSegment;
+import com.yren.study.vadDemo.vad.SileroVAD;
+import com.yren.study.vadDemo.vad.VoiceSegmentExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 片段提取基准：基于示例音频的检测结果，比较列表、列式时间线与滞回三种提取方式
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SegmentExtractionBenchmark {
+
+    private final VoiceSegmentExtractor extractor = new VoiceSegmentExtractor();
+    private VadTimeline timeline;
+    private List<VadResult> results;
+
+    @Setup
+    public void setup() throws Exception {
+        SileroVAD vad = new SileroVAD();
+        vad.loadModel(BenchmarkResources.modelPath());
+        try {
+            timeline = vad.detectVoiceTimeline(BenchmarkResources.loadAudio());
+        } finally {
+            vad.close();
+        }
+        results = new ArrayList<>(timeline.asList());
+    }
+
+    @Benchmark
+    public List<VoiceSegment> extractFromList() {
+        return extractor.extractVoiceSegments(results, 0.5f);
+    }
+
+    @Benchmark
+    public List<VoiceSegment> extractFromTimeline() {
+        return extractor.extractVoiceSegments(timeline, 0.5f);
+    }
+
+    @Benchmark
+    public List<VoiceSegment> extractWithHysteresis() {
+        return extractor.extractVoiceSegments(timeline, 0.3f, 0.15f, 250, 100, 30);
+    }
+}
@@ -0,0 +1,33 @@
+package com.yren.study.vadDemo.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * VAD流水线基准测试入口
+ * 默认运行本包下的全部基准并开启GC分析器（输出 gc.alloc.rate.norm 等分配指标），
+ * SampleTime 模式会同时输出 p50/p90/p99 等延迟分位数；
+ * 其余参数与 JMH 命令行一致，例如: java -jar benchmarks.jar InferenceBenchmark -rf json
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class VadBenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(commandLine);
+        builder.addProfiler(GCProfiler.class);
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include(VadBenchmarkRunner.class.getPackage().getName() + ".*Benchmark");
+        }
+
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
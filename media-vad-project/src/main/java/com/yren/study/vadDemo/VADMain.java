@@ -2,11 +2,20 @@ package com.yren.study.vadDemo;
 
 import com.yren.study.vadDemo.audio.AudioComposer;
 import com.yren.study.vadDemo.audio.AudioPreprocessor;
-import com.yren.study.vadDemo.result.VadResult;
+import com.yren.study.vadDemo.result.VadTimeline;
 import com.yren.study.vadDemo.result.VoiceSegment;
+import com.yren.study.vadDemo.vad.ModelVariant;
+import com.yren.study.vadDemo.vad.ParallelSileroVAD;
+import com.yren.study.vadDemo.vad.SegmentListener;
+import com.yren.study.vadDemo.vad.SessionProfile;
+import com.yren.study.vadDemo.vad.SileroModel;
 import com.yren.study.vadDemo.vad.SileroVAD;
+import com.yren.study.vadDemo.vad.StreamingVadPipeline;
+import com.yren.study.vadDemo.vad.VadSampleRate;
+import com.yren.study.vadDemo.vad.VadScoreCache;
 import com.yren.study.vadDemo.vad.VoiceSegmentExtractor;
 
+import java.nio.file.Paths;
 import java.util.List;
 
 /**
@@ -18,31 +27,72 @@ public class VADMain {
         String wavFilePath = "/Users/yren/Documents/studyProject/yren-java-project-general-study/media-vad-project/src/main/resources/audio/元数据.wav";
         String vadModelPath = "/Users/yren/Documents/studyProject/yren-java-project-general-study/media-vad-project/src/main/resources/model/silero_vad.onnx";
 
+        // -Dvad.model.variant=int8 时使用同目录下的量化模型
+        String modelVariant = System.getProperty("vad.model.variant");
+        if (modelVariant != null) {
+            vadModelPath = ModelVariant.of(modelVariant).resolve(Paths.get(vadModelPath).getParent()).toString();
+        }
+
+        // -Dvad.sampleRate=8000 时使用8kHz模式，电话音频无需上采样，时间戳按该采样率换算
+        VadSampleRate sampleRate = VadSampleRate.of(Integer.getInteger("vad.sampleRate", 16000));
+
         try {
+            // -Dvad.streaming=true 时使用恒定内存的流式模式，适用于数小时的长录音
+            if (Boolean.getBoolean("vad.streaming")) {
+                runStreaming(wavFilePath, vadModelPath, sampleRate, "/Users/yren/Desktop/voice_segments_with_gap.wav");
+                return;
+            }
+
             // 1. 加载和预处理音频
-            AudioPreprocessor preprocessor = new AudioPreprocessor();
+            AudioPreprocessor preprocessor = new AudioPreprocessor(sampleRate.getHertz());
             float[] audioData = preprocessor.loadAndPreprocessWav(wavFilePath);
             System.out.println("Audio loaded: " + audioData.length + " samples");
 
-            // 2. 初始化VAD模型
-            SileroVAD vad = new SileroVAD();
-            vad.loadModel(vadModelPath);
-            System.out.println("VAD model loaded");
+            // 2. 查询VAD概率缓存（-Dvad.score.cache 指定缓存目录），命中时跳过模型加载与推理
+            String scoreCacheDir = System.getProperty("vad.score.cache");
+            VadScoreCache scoreCache = scoreCacheDir == null ? null
+                    : new VadScoreCache(Paths.get(scoreCacheDir), Paths.get(vadModelPath), sampleRate, "");
+            String audioKey = scoreCache == null ? null : scoreCache.audioKey(Paths.get(wavFilePath));
+            VadTimeline timeline = scoreCache == null ? null
+                    : scoreCache.load(audioKey, SileroVAD.getDefaultThreshold());
 
-            // 3. 执行VAD检测
-            List<VadResult> vadResults = vad.detectVoiceActivity(audioData);
-            System.out.println("VAD detection completed: " + vadResults.size() + " windows");
+            if (timeline != null) {
+                System.out.println("VAD score cache hit: " + scoreCache.cacheFile(audioKey));
+            } else {
+                // 3. 初始化VAD模型
+                // 会话配置档与优化模型缓存目录可通过 -Dvad.session.profile / -Dvad.model.cache 指定
+                SessionProfile profile = SessionProfile.valueOf(
+                        System.getProperty("vad.session.profile", SessionProfile.SINGLE_STREAM_LOW_LATENCY.name()));
+                String modelCacheDir = System.getProperty("vad.model.cache");
+                SileroVAD vad = new SileroVAD();
+                vad.loadModel(vadModelPath, profile, modelCacheDir == null ? null : Paths.get(modelCacheDir), sampleRate);
+                System.out.println("VAD model loaded");
+
+                // 执行VAD检测（-Dvad.parallel=true 时按分片并行检测）
+                try {
+                    if (Boolean.getBoolean("vad.parallel")) {
+                        ParallelSileroVAD parallelVad = new ParallelSileroVAD(vad.getModel());
+                        timeline = parallelVad.detectVoiceTimeline(audioData);
+                    } else {
+                        timeline = vad.detectVoiceTimeline(audioData);
+                    }
+                } finally {
+                    vad.close();
+                }
+                if (scoreCache != null) {
+                    scoreCache.store(audioKey, timeline);
+                }
+            }
+            System.out.println("VAD detection completed: " + timeline.size() + " windows");
 
             // 4. 提取人声片段
             VoiceSegmentExtractor extractor = new VoiceSegmentExtractor();
-            List<VoiceSegment> voiceSegments = extractor.extractVoiceSegments(vadResults, 0.5f);
+            List<VoiceSegment> voiceSegments = extractor.extractVoiceSegments(timeline, 0.5f);
 
             // 5. 输出结果
             System.out.println("\n=== VAD Results ===");
-            for (VadResult result : vadResults) {
-                if (result.isVoice()) {
-                    System.out.println(result);
-                }
+            for (int i = timeline.nextVoiceWindow(0); i >= 0; i = timeline.nextVoiceWindow(i + 1)) {
+                System.out.println(timeline.get(i));
             }
 
             System.out.println("\n=== Voice Segments ===");
@@ -52,7 +102,7 @@ public class VADMain {
 
             // 6. 合成人声片段为wav文件
             if (!voiceSegments.isEmpty()) {
-                AudioComposer composer = new AudioComposer();
+                AudioComposer composer = new AudioComposer(sampleRate.getHertz());
                 String outputPath = "/Users/yren/Desktop/voice_segments_merged.wav";
                 
                 // 方式1：直接合并所有人声片段（使用200ms缓冲区以避免截断）
@@ -64,12 +114,39 @@ public class VADMain {
             } else {
                 System.out.println("未检测到人声片段，无法生成合成音频");
             }
-
-            // 7. 清理资源
-            vad.close();
-
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
+
+    /**
+     * 解码、VAD、片段判定与写出全程流式进行，不把整段音频或逐窗口结果留在内存中
+     */
+    private static void runStreaming(String wavFilePath, String vadModelPath, VadSampleRate mode,
+                                     String outputPath) throws Exception {
+        try (SileroModel model = SileroModel.load(vadModelPath, SessionProfile.SINGLE_STREAM_LOW_LATENCY, null, mode)) {
+            int sampleRate = model.getSampleRate();
+            StreamingVadPipeline pipeline = new StreamingVadPipeline(model);
+            pipeline.setSegmentListener(new SegmentListener() {
+                @Override
+                public void onSegmentStart(long startSample) {
+                }
+
+                @Override
+                public void onSegmentEnd(long startSample, long endSample) {
+                    System.out.printf("VoiceSegment: %.2fs - %.2fs%n",
+                            startSample / (double) sampleRate, endSample / (double) sampleRate);
+                }
+            });
+
+            long start = System.nanoTime();
+            pipeline.process(wavFilePath, outputPath, 0.5f);
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+            double audioSeconds = pipeline.getTotalSamples() / (double) sampleRate;
+            System.out.printf("Streaming VAD completed: %.1fs audio in %.1fs (%.1fx realtime), %d segments, %.1fs voice%n",
+                    audioSeconds, elapsedSeconds, audioSeconds / elapsedSeconds,
+                    pipeline.getSegmentCount(), pipeline.getVoiceSamples() / (double) sampleRate);
+            System.out.println("人声片段已合成并保存到: " + outputPath);
+        }
+    }
 }
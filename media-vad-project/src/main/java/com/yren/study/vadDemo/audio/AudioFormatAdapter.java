@@ -0,0 +1,109 @@
+package com.yren.study.vadDemo.audio;
+
+/**
+ * 音频格式适配：多声道交错样本 → 单声道混音 → 重采样到目标采样率
+ * 放在VAD分窗之前，使采集和解码可以直接使用设备/文件的原生采样率与声道数。非线程安全
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class AudioFormatAdapter {
+    private static final int CHUNK_FRAMES = 4096;
+
+    private final int inputRate;
+    private final int channels;
+    private final int outputRate;
+    private final PolyphaseResampler resampler;
+    private final float[] mono = new float[CHUNK_FRAMES];
+
+    public AudioFormatAdapter(int inputRate, int channels, int outputRate) {
+        if (channels <= 0) {
+            throw new IllegalArgumentException("声道数必须大于0: " + channels);
+        }
+        this.inputRate = inputRate;
+        this.channels = channels;
+        this.outputRate = outputRate;
+        this.resampler = inputRate == outputRate ? null : new PolyphaseResampler(inputRate, outputRate);
+    }
+
+    /**
+     * @return 输入已经是目标格式，无需转换
+     */
+    public boolean isPassThrough() {
+        return resampler == null && channels == 1;
+    }
+
+    /**
+     * 转换一段交错样本，长度需为声道数的整数倍
+     *
+     * @param interleaved 交错排列的输入样本
+     * @param offset 起始位置
+     * @param length 样本数（所有声道）
+     * @param output 输出数组，容量需不小于 {@link #maxOutputSamples(int)}
+     * @param outputOffset 输出起始位置
+     * @return 输出的单声道样本数
+     */
+    public int process(float[] interleaved, int offset, int length, float[] output, int outputOffset) {
+        int frames = length / channels;
+        int written = 0;
+        for (int frame = 0; frame < frames; frame += CHUNK_FRAMES) {
+            int count = Math.min(CHUNK_FRAMES, frames - frame);
+            ChannelDownmixer.downmix(interleaved, offset + frame * channels, count, channels, mono, 0);
+            if (resampler == null) {
+                System.arraycopy(mono, 0, output, outputOffset + written, count);
+                written += count;
+            } else {
+                written += resampler.process(mono, 0, count, output, outputOffset + written);
+            }
+        }
+        return written;
+    }
+
+    /**
+     * @return 输入 length 个样本（所有声道）时最多产生的输出样本数
+     */
+    public int maxOutputSamples(int length) {
+        int frames = length / channels;
+        if (resampler == null) {
+            return frames;
+        }
+        // 按内部分块处理，每块最多多出一个样本
+        return resampler.maxOutputSamples(frames) + frames / CHUNK_FRAMES + 1;
+    }
+
+    /**
+     * 输入结束后取出重采样器中滞留的样本
+     *
+     * @param output 输出数组，容量需不小于 {@link #maxFlushSamples()}
+     * @param outputOffset 输出起始位置
+     * @return 输出的单声道样本数，无需重采样时为0
+     */
+    public int flush(float[] output, int outputOffset) {
+        return resampler == null ? 0 : resampler.flush(output, outputOffset);
+    }
+
+    /**
+     * @return {@link #flush(float[], int)} 最多产生的输出样本数
+     */
+    public int maxFlushSamples() {
+        return resampler == null ? 0 : resampler.maxFlushSamples();
+    }
+
+    public void reset() {
+        if (resampler != null) {
+            resampler.reset();
+        }
+    }
+
+    public int getInputRate() {
+        return inputRate;
+    }
+
+    public int getChannels() {
+        return channels;
+    }
+
+    public int getOutputRate() {
+        return outputRate;
+    }
+}
@@ -5,59 +5,250 @@ package com.yren.study.vadDemo.audio;
  * @date 2025/9/8
  */
 
+import org.bytedeco.ffmpeg.global.avutil;
 import org.bytedeco.javacv.FFmpegFrameGrabber;
 import org.bytedeco.javacv.Frame;
-import java.io.ByteArrayOutputStream;
+
+import java.nio.ShortBuffer;
+import java.util.Arrays;
 
 public class AudioPreprocessor {
-    private static final int TARGET_SAMPLE_RATE = 16000;
+    private static final int DEFAULT_SAMPLE_RATE = 16000;
     private static final int TARGET_CHANNELS = 1;
+    // 整段加载时每次回调的窗口大小
+    private static final int LOAD_WINDOW_SIZE = 8192;
+    // 整段加载且无法得知音频时长时，结果数组的初始容量（秒）
+    private static final int UNKNOWN_LENGTH_SECONDS = 60;
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+    // 格式转换时每块处理的帧数
+    private static final int CONVERT_CHUNK_FRAMES = 4096;
+
+    // 输出的目标采样率，与VAD模型的采样率模式一致
+    private final int targetSampleRate;
+
+    public AudioPreprocessor() {
+        this(DEFAULT_SAMPLE_RATE);
+    }
+
+    /**
+     * @param targetSampleRate 输出的目标采样率，8kHz电话音频配合8kHz模型时无需重采样
+     */
+    public AudioPreprocessor(int targetSampleRate) {
+        if (targetSampleRate <= 0) {
+            throw new IllegalArgumentException("targetSampleRate必须大于0: " + targetSampleRate);
+        }
+        this.targetSampleRate = targetSampleRate;
+    }
 
     public float[] loadAndPreprocessWav(String wavFilePath) throws Exception {
-        // 使用JavaCV读取音频文件
+        // PCM16 WAV只打开一次：目标格式直接内存映射读取，其余按头部的样本数确定结果长度
+        try (PcmWavFile wav = PcmWavFile.tryOpen(wavFilePath)) {
+            if (wav != null) {
+                if (isVadReady(wav)) {
+                    return wav.readAll();
+                }
+                long frames = wav.getSampleCount() / wav.getChannels();
+                return collect(outputSamples(frames, wav.getSampleRate()),
+                        listener -> streamWav(wav, LOAD_WINDOW_SIZE, listener));
+            }
+        }
+
+        // 其余格式按容器给出的时长预估结果长度，时长不准时再扩容或截断
+        FFmpegFrameGrabber grabber = startGrabber(wavFilePath);
+        try {
+            long frames = grabber.getLengthInTime() * grabber.getSampleRate() / 1_000_000L;
+            return collect(outputSamples(frames, grabber.getSampleRate()),
+                    listener -> streamDecoded(grabber, LOAD_WINDOW_SIZE, listener));
+        } finally {
+            grabber.stop();
+            grabber.release();
+        }
+    }
+
+    /**
+     * 可以回调窗口的音频来源
+     */
+    private interface WindowSource {
+        long stream(AudioWindowListener listener) throws Exception;
+    }
+
+    /**
+     * 把音频来源的全部窗口直接追加到结果数组，避免中间的字节数组拷贝
+     * @param expectedSamples 预计的输出样本数，准确时不会发生扩容和截断拷贝
+     */
+    private static float[] collect(int expectedSamples, WindowSource source) throws Exception {
+        float[][] audio = {new float[expectedSamples]};
+        long totalSamples = source.stream((window, length, startSample) -> {
+            if (startSample + length > MAX_ARRAY_LENGTH) {
+                throw new IllegalStateException("音频过长，无法一次性加载到float数组，请使用streamWindows流式处理");
+            }
+            int required = (int) startSample + length;
+            if (required > audio[0].length) {
+                audio[0] = Arrays.copyOf(audio[0], (int) Math.min(MAX_ARRAY_LENGTH,
+                        Math.max(required, audio[0].length * 2L)));
+            }
+            System.arraycopy(window, 0, audio[0], (int) startSample, length);
+        });
+        return audio[0].length == totalSamples ? audio[0] : Arrays.copyOf(audio[0], (int) totalSamples);
+    }
+
+    /**
+     * 按输入帧数与采样率换算目标采样率下的输出样本数，与重采样器的输出数 ceil(帧数 * 目标采样率 / 输入采样率) 一致
+     * 帧数未知时返回固定时长的初始容量
+     */
+    private int outputSamples(long inputFrames, int inputRate) {
+        if (inputFrames <= 0 || inputRate <= 0) {
+            return targetSampleRate * UNKNOWN_LENGTH_SECONDS;
+        }
+        long samples = (inputFrames * targetSampleRate + inputRate - 1) / inputRate;
+        return (int) Math.min(MAX_ARRAY_LENGTH, samples);
+    }
+
+    /**
+     * 流式解码音频文件，逐帧转换为目标采样率的单声道归一化float，并按固定大小的窗口回调
+     * 解码过程只复用一个窗口缓冲区，内存占用与音频长度无关；
+     * 采样率不同或多声道的音频以原生格式解码，由 {@link AudioFormatAdapter} 在Java侧混音并重采样
+     *
+     * @param wavFilePath 音频文件路径
+     * @param windowSize 每次回调的窗口样本数
+     * @param listener 窗口回调
+     * @return 解码得到的总样本数
+     * @throws Exception 解码或回调异常
+     */
+    public long streamWindows(String wavFilePath, int windowSize, AudioWindowListener listener) throws Exception {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("windowSize必须大于0: " + windowSize);
+        }
+
+        // PCM16 WAV直接内存映射读取，其余格式使用FFmpeg解码
+        try (PcmWavFile wav = PcmWavFile.tryOpen(wavFilePath)) {
+            if (wav != null) {
+                return streamWav(wav, windowSize, listener);
+            }
+        }
+
+        FFmpegFrameGrabber grabber = startGrabber(wavFilePath);
+        try {
+            return streamDecoded(grabber, windowSize, listener);
+        } finally {
+            grabber.stop();
+            grabber.release();
+        }
+    }
+
+    /**
+     * 流式读取已打开的PCM16 WAV，非目标格式时在Java侧混音并重采样
+     */
+    private long streamWav(PcmWavFile wav, int windowSize, AudioWindowListener listener) throws Exception {
+        if (isVadReady(wav)) {
+            return wav.streamWindows(windowSize, listener);
+        }
+        AudioFormatAdapter adapter = new AudioFormatAdapter(wav.getSampleRate(), wav.getChannels(),
+                targetSampleRate);
+        WindowAssembler assembler = new WindowAssembler(windowSize, listener);
+        int chunkSamples = CONVERT_CHUNK_FRAMES * wav.getChannels();
+        float[] converted = new float[Math.max(adapter.maxOutputSamples(chunkSamples), adapter.maxFlushSamples())];
+        wav.streamWindows(chunkSamples, (chunk, length, startSample) -> {
+            int count = adapter.process(chunk, 0, length, converted, 0);
+            assembler.accept(converted, count);
+        });
+        assembler.accept(converted, adapter.flush(converted, 0));
+        return assembler.finish();
+    }
+
+    /**
+     * 使用JavaCV读取音频文件，只要求输出交错的16位样本，采样率和声道保持原生，避免FFmpeg重采样
+     */
+    private static FFmpegFrameGrabber startGrabber(String wavFilePath) throws Exception {
         FFmpegFrameGrabber grabber = new FFmpegFrameGrabber(wavFilePath);
+        grabber.setSampleFormat(avutil.AV_SAMPLE_FMT_S16);
         grabber.start();
+        return grabber;
+    }
 
-        // 设置目标参数
-        grabber.setSampleRate(TARGET_SAMPLE_RATE);
-        grabber.setAudioChannels(TARGET_CHANNELS);
+    /**
+     * 从已启动的解码器逐帧读取样本，混音、重采样后按窗口回调
+     */
+    private long streamDecoded(FFmpegFrameGrabber grabber, int windowSize, AudioWindowListener listener)
+            throws Exception {
+        int channels = Math.max(1, grabber.getAudioChannels());
+        AudioFormatAdapter adapter = new AudioFormatAdapter(grabber.getSampleRate(), channels, targetSampleRate);
+        WindowAssembler assembler = new WindowAssembler(windowSize, listener);
+        int chunkSamples = CONVERT_CHUNK_FRAMES * channels;
+        float[] interleaved = new float[chunkSamples];
+        float[] converted = new float[Math.max(adapter.maxOutputSamples(chunkSamples), adapter.maxFlushSamples())];
 
-        // 读取所有音频帧
         Frame frame;
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-
-        while ((frame = grabber.grab()) != null) {
-            if (frame.samples != null) {
-                // 获取音频数据
-                java.nio.ShortBuffer buffer = (java.nio.ShortBuffer) frame.samples[0];
-                short[] audioData = new short[buffer.remaining()];
-                buffer.get(audioData);
-
-                // 转换为字节数组
-                for (short sample : audioData) {
-                    baos.write(sample & 0xFF);
-                    baos.write((sample >> 8) & 0xFF);
+        while ((frame = grabber.grabSamples()) != null) {
+            if (frame.samples == null) {
+                continue;
+            }
+
+            // 归一化到[-1, 1]，按整帧分块混音、重采样后写入窗口缓冲区
+            ShortBuffer buffer = (ShortBuffer) frame.samples[0];
+            while (buffer.remaining() >= channels) {
+                int count = Math.min(chunkSamples, buffer.remaining() / channels * channels);
+                PcmConverter.pcm16ToFloat(buffer, interleaved, 0, count);
+                if (adapter.isPassThrough()) {
+                    assembler.accept(interleaved, count);
+                } else {
+                    assembler.accept(converted, adapter.process(interleaved, 0, count, converted, 0));
                 }
             }
         }
 
-        grabber.stop();
-
-        // 转换为float数组并归一化
-        byte[] audioBytes = baos.toByteArray();
-        return bytesToNormalizedFloat(audioBytes);
+        assembler.accept(converted, adapter.flush(converted, 0));
+        return assembler.finish();
     }
 
-    public float[] bytesToNormalizedFloat(byte[] audioBytes) {
-        float[] floatArray = new float[audioBytes.length / 2];
+    /**
+     * 把任意长度的样本块拼接成固定大小的窗口并回调，最后一个不完整的窗口补零
+     */
+    private static final class WindowAssembler {
+        private final float[] window;
+        private final AudioWindowListener listener;
+        private int filled;
+        private long windowStart;
 
-        for (int i = 0; i < floatArray.length; i++) {
-            // 将两个字节组合成short
-            short sample = (short) ((audioBytes[i * 2 + 1] << 8) | (audioBytes[i * 2] & 0xFF));
-            // 归一化到[-1, 1]
-            floatArray[i] = sample / 32768.0f;
+        WindowAssembler(int windowSize, AudioWindowListener listener) {
+            this.window = new float[windowSize];
+            this.listener = listener;
         }
 
+        void accept(float[] samples, int length) throws Exception {
+            int position = 0;
+            while (position < length) {
+                int count = Math.min(window.length - filled, length - position);
+                System.arraycopy(samples, position, window, filled, count);
+                filled += count;
+                position += count;
+                if (filled == window.length) {
+                    listener.onWindow(window, window.length, windowStart);
+                    windowStart += window.length;
+                    filled = 0;
+                }
+            }
+        }
+
+        long finish() throws Exception {
+            if (filled > 0) {
+                Arrays.fill(window, filled, window.length, 0f);
+                listener.onWindow(window, filled, windowStart);
+            }
+            return windowStart + filled;
+        }
+    }
+
+    /**
+     * @return 已经是目标采样率、单声道的16位PCM WAV，可以直接内存映射读取
+     */
+    private boolean isVadReady(PcmWavFile wav) {
+        return wav.getSampleRate() == targetSampleRate && wav.getChannels() == TARGET_CHANNELS;
+    }
+
+    public float[] bytesToNormalizedFloat(byte[] audioBytes) {
+        float[] floatArray = new float[audioBytes.length / 2];
+        PcmConverter.pcm16ToFloat(audioBytes, 0, audioBytes.length, floatArray, 0);
         return floatArray;
     }
 }
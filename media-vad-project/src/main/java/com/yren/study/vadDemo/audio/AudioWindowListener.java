@@ -0,0 +1,22 @@
+package com.yren.study.vadDemo.audio;
+
+/**
+ * 流式解码的音频窗口回调
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+@FunctionalInterface
+public interface AudioWindowListener {
+
+    /**
+     * 收到一个归一化后的音频窗口
+     * window 是解码器复用的缓冲区，只在回调期间有效，需要保留时请自行拷贝
+     *
+     * @param window 窗口数据，最后一个窗口不足部分已补零
+     * @param length 窗口中的有效样本数
+     * @param startSample 窗口第一个样本在整段音频中的位置
+     * @throws Exception 处理异常，会中止解码
+     */
+    void onWindow(float[] window, int length, long startSample) throws Exception;
+}
@@ -0,0 +1,40 @@
+package com.yren.study.vadDemo.audio;
+
+/**
+ * 多声道交错样本混音为单声道
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public final class ChannelDownmixer {
+
+    private ChannelDownmixer() {
+    }
+
+    /**
+     * 对每一帧的各声道取平均
+     *
+     * @param interleaved 交错排列的多声道样本
+     * @param offset 起始位置
+     * @param frames 帧数
+     * @param channels 声道数
+     * @param mono 输出的单声道样本，可以与输入为同一数组（原地混音）
+     * @param monoOffset 输出起始位置
+     */
+    public static void downmix(float[] interleaved, int offset, int frames, int channels,
+                               float[] mono, int monoOffset) {
+        if (channels == 1) {
+            System.arraycopy(interleaved, offset, mono, monoOffset, frames);
+            return;
+        }
+        float scale = 1f / channels;
+        for (int frame = 0; frame < frames; frame++) {
+            int base = offset + frame * channels;
+            float sum = 0;
+            for (int channel = 0; channel < channels; channel++) {
+                sum += interleaved[base + channel];
+            }
+            mono[monoOffset + frame] = sum * scale;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.yren.study.vadDemo.audio;
+
+/**
+ * 预分配的float环形缓冲区
+ * 用于实时音频的累积与分窗，写满时覆盖最旧的数据；非线程安全，需由同一线程读写
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class FloatRingBuffer {
+    private final float[] buffer;
+    // 累计写入与读取的样本数，下标通过取模得到
+    private long writePosition = 0;
+    private long readPosition = 0;
+    private long overwrittenSamples = 0;
+
+    public FloatRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity必须大于0: " + capacity);
+        }
+        this.buffer = new float[capacity];
+    }
+
+    /**
+     * 写入样本，空间不足时覆盖最旧的未读样本
+     */
+    public void write(float[] src, int offset, int length) {
+        // 超过容量的部分只保留最后 capacity 个样本
+        if (length > buffer.length) {
+            int skipped = length - buffer.length;
+            offset += skipped;
+            length = buffer.length;
+            writePosition += skipped;
+        }
+
+        int start = (int) (writePosition % buffer.length);
+        int first = Math.min(length, buffer.length - start);
+        System.arraycopy(src, offset, buffer, start, first);
+        System.arraycopy(src, offset + first, buffer, 0, length - first);
+        writePosition += length;
+
+        long oldest = writePosition - buffer.length;
+        if (readPosition < oldest) {
+            overwrittenSamples += oldest - readPosition;
+            readPosition = oldest;
+        }
+    }
+
+    /**
+     * 复制最早的 length 个未读样本，不移动读位置
+     */
+    public void peek(float[] dest, int offset, int length) {
+        peekAt(readPosition, dest, offset, length);
+    }
+
+    /**
+     * 从绝对位置 position 开始复制 length 个样本，位置需仍在缓冲区内
+     */
+    public void peekAt(long position, float[] dest, int offset, int length) {
+        if (position < writePosition - buffer.length || position + length > writePosition) {
+            throw new IndexOutOfBoundsException("超出缓冲区范围: [" + position + ", " + (position + length) + ")");
+        }
+        int start = (int) (position % buffer.length);
+        int first = Math.min(length, buffer.length - start);
+        System.arraycopy(buffer, start, dest, offset, first);
+        System.arraycopy(buffer, 0, dest, offset + first, length - first);
+    }
+
+    /**
+     * 读取并消费 length 个样本
+     */
+    public void read(float[] dest, int offset, int length) {
+        peek(dest, offset, length);
+        skip(length);
+    }
+
+    /**
+     * 跳过 length 个未读样本
+     */
+    public void skip(int length) {
+        if (length > available()) {
+            throw new IndexOutOfBoundsException("可读样本不足: " + length + " > " + available());
+        }
+        readPosition += length;
+    }
+
+    /**
+     * @return 未读样本数
+     */
+    public int available() {
+        return (int) (writePosition - readPosition);
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * @return 累计读取（消费）的样本数
+     */
+    public long getReadPosition() {
+        return readPosition;
+    }
+
+    /**
+     * @return 累计写入的样本数
+     */
+    public long getWritePosition() {
+        return writePosition;
+    }
+
+    /**
+     * @return 因缓冲区写满而被覆盖的未读样本数
+     */
+    public long getOverwrittenSamples() {
+        return overwrittenSamples;
+    }
+
+    public void clear() {
+        readPosition = writePosition;
+    }
+}
@@ -0,0 +1,88 @@
+package com.yren.study.vadDemo.audio;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+
+/**
+ * 16位PCM与归一化float样本之间的转换
+ * 采集、解码与合成写出共用这一组转换函数，结果写入调用方提供的缓冲区，不分配新的样本数组。
+ * 字节序处理交给 ShortBuffer 的批量 get/put，数值转换是没有分支的简单循环，可以被JIT自动向量化
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public final class PcmConverter {
+    // 除以32768与乘以其倒数结果完全一致（2的幂）
+    private static final float SHORT_TO_FLOAT = 1.0f / 32768.0f;
+    private static final float FLOAT_TO_SHORT = 32767.0f;
+    // 每线程的中转缓冲区样本数
+    private static final int SCRATCH_SAMPLES = 4096;
+
+    private static final ThreadLocal<short[]> SCRATCH = ThreadLocal.withInitial(() -> new short[SCRATCH_SAMPLES]);
+
+    private PcmConverter() {
+    }
+
+    /**
+     * 小端序PCM16字节转换为[-1, 1)范围的float
+     *
+     * @param src PCM字节
+     * @param srcOffset 起始字节
+     * @param byteLength 字节数，末尾不足一个样本的字节被忽略
+     * @param dest 目标数组
+     * @param destOffset 目标起始位置
+     * @return 转换的样本数
+     */
+    public static int pcm16ToFloat(byte[] src, int srcOffset, int byteLength, float[] dest, int destOffset) {
+        int samples = byteLength / 2;
+        ShortBuffer shorts = ByteBuffer.wrap(src, srcOffset, samples * 2).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+        pcm16ToFloat(shorts, dest, destOffset, samples);
+        return samples;
+    }
+
+    /**
+     * 从 ShortBuffer 的当前位置读取 length 个样本并转换为float，读取后 position 前移
+     */
+    public static void pcm16ToFloat(ShortBuffer src, float[] dest, int destOffset, int length) {
+        short[] scratch = SCRATCH.get();
+        for (int done = 0; done < length; ) {
+            int count = Math.min(scratch.length, length - done);
+            src.get(scratch, 0, count);
+            shortsToFloat(scratch, 0, dest, destOffset + done, count);
+            done += count;
+        }
+    }
+
+    /**
+     * 将float样本转换为PCM16写入 ShortBuffer 的当前位置，写入后 position 前移
+     * 超出[-1, 1]的样本按原有实现直接截断为short
+     */
+    public static void floatToPcm16(float[] src, int srcOffset, int length, ShortBuffer dest) {
+        short[] scratch = SCRATCH.get();
+        for (int done = 0; done < length; ) {
+            int count = Math.min(scratch.length, length - done);
+            floatsToShorts(src, srcOffset + done, scratch, 0, count);
+            dest.put(scratch, 0, count);
+            done += count;
+        }
+    }
+
+    /**
+     * short → float 核心循环
+     */
+    public static void shortsToFloat(short[] src, int srcOffset, float[] dest, int destOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            dest[destOffset + i] = src[srcOffset + i] * SHORT_TO_FLOAT;
+        }
+    }
+
+    /**
+     * float → short 核心循环
+     */
+    public static void floatsToShorts(float[] src, int srcOffset, short[] dest, int destOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            dest[destOffset + i] = (short) (src[srcOffset + i] * FLOAT_TO_SHORT);
+        }
+    }
+}
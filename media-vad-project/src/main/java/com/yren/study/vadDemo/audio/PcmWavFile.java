@@ -0,0 +1,214 @@
+package com.yren.study.vadDemo.audio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * PCM16 WAV 文件的内存映射读取
+ * 通过解析 RIFF 头识别未压缩的16位PCM WAV，数据区使用 FileChannel.map 映射后直接转换为归一化float，
+ * 不经过 FFmpeg 解码器
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class PcmWavFile implements Closeable {
+    private static final int WAVE_FORMAT_PCM = 1;
+    private static final int WAVE_FORMAT_EXTENSIBLE = 0xFFFE;
+    // 流式写出时尚未确定的data大小占位值
+    private static final long UNKNOWN_DATA_SIZE = 0xFFFFFFFFL;
+    // 每次映射的数据区大小，必须为偶数
+    private static final long MAP_CHUNK_BYTES = 64L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final int sampleRate;
+    private final int channels;
+    private final long dataOffset;
+    private final long dataBytes;
+
+    private PcmWavFile(FileChannel channel, int sampleRate, int channels, long dataOffset, long dataBytes) {
+        this.channel = channel;
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        this.dataOffset = dataOffset;
+        this.dataBytes = dataBytes;
+    }
+
+    /**
+     * 打开并解析WAV头
+     *
+     * @param wavFilePath 文件路径
+     * @return 16位PCM WAV文件；不是RIFF/WAVE或不是16位PCM编码时返回null
+     * @throws IOException 读取异常
+     */
+    public static PcmWavFile tryOpen(String wavFilePath) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(wavFilePath), StandardOpenOption.READ);
+        try {
+            PcmWavFile wav = parse(channel);
+            if (wav == null) {
+                channel.close();
+            }
+            return wav;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static PcmWavFile parse(FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+        if (!readFully(channel, header, 0)
+                || header.getInt(0) != fourCC("RIFF") || header.getInt(8) != fourCC("WAVE")) {
+            return null;
+        }
+
+        int formatTag = -1;
+        int channels = 0;
+        int sampleRate = 0;
+        int bitsPerSample = 0;
+
+        // 依次遍历子块，找到 fmt 和 data
+        ByteBuffer chunk = ByteBuffer.allocate(40).order(ByteOrder.LITTLE_ENDIAN);
+        long position = 12;
+        while (position + 8 <= fileSize) {
+            chunk.clear().limit(8);
+            if (!readFully(channel, chunk, position)) {
+                return null;
+            }
+            int chunkId = chunk.getInt(0);
+            long chunkSize = chunk.getInt(4) & 0xFFFFFFFFL;
+            long body = position + 8;
+
+            if (chunkId == fourCC("fmt ")) {
+                chunk.clear().limit((int) Math.min(40, chunkSize));
+                if (chunkSize < 16 || !readFully(channel, chunk, body)) {
+                    return null;
+                }
+                formatTag = chunk.getShort(0) & 0xFFFF;
+                channels = chunk.getShort(2) & 0xFFFF;
+                sampleRate = chunk.getInt(4);
+                bitsPerSample = chunk.getShort(14) & 0xFFFF;
+                // WAVE_FORMAT_EXTENSIBLE 的实际编码在子格式GUID的前两个字节
+                if (formatTag == WAVE_FORMAT_EXTENSIBLE && chunkSize >= 26) {
+                    formatTag = chunk.getShort(24) & 0xFFFF;
+                }
+            } else if (chunkId == fourCC("data")) {
+                if (formatTag != WAVE_FORMAT_PCM || bitsPerSample != 16 || channels <= 0) {
+                    return null;
+                }
+                // 流式写出的WAV可能没有回填data大小（0或0xFFFFFFFF），此时以文件实际长度为准；
+                // 声明的大小超出文件末尾时（文件被截断）同样截到文件末尾
+                long dataBytes = chunkSize == 0 || chunkSize == UNKNOWN_DATA_SIZE
+                        ? fileSize - body : Math.min(chunkSize, fileSize - body);
+                return new PcmWavFile(channel, sampleRate, channels, body, dataBytes);
+            }
+            // 子块按偶数字节对齐
+            position = body + chunkSize + (chunkSize & 1);
+        }
+        return null;
+    }
+
+    /**
+     * 按固定大小的窗口回调归一化后的样本，多声道时按交错顺序输出
+     *
+     * @param windowSize 每次回调的窗口样本数
+     * @param listener 窗口回调
+     * @return 总样本数
+     * @throws Exception 读取或回调异常
+     */
+    public long streamWindows(int windowSize, AudioWindowListener listener) throws Exception {
+        float[] window = new float[windowSize];
+        int filled = 0;
+        long windowStart = 0;
+
+        for (long position = 0; position < dataBytes; position += MAP_CHUNK_BYTES) {
+            long size = Math.min(MAP_CHUNK_BYTES, dataBytes - position);
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, dataOffset + position, size);
+            ShortBuffer samples = mapped.order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+
+            while (samples.hasRemaining()) {
+                int count = Math.min(windowSize - filled, samples.remaining());
+                PcmConverter.pcm16ToFloat(samples, window, filled, count);
+                filled += count;
+                if (filled == windowSize) {
+                    listener.onWindow(window, windowSize, windowStart);
+                    windowStart += windowSize;
+                    filled = 0;
+                }
+            }
+        }
+
+        // 最后一个不完整的窗口
+        if (filled > 0) {
+            Arrays.fill(window, filled, windowSize, 0f);
+            listener.onWindow(window, filled, windowStart);
+        }
+        return windowStart + filled;
+    }
+
+    /**
+     * 将整个数据区读入float数组
+     *
+     * @return 归一化后的样本
+     * @throws IOException 读取异常
+     */
+    public float[] readAll() throws IOException {
+        long sampleCount = getSampleCount();
+        if (sampleCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("音频过长，无法一次性加载到float数组，请使用streamWindows流式处理");
+        }
+        float[] audio = new float[(int) sampleCount];
+        int written = 0;
+        for (long position = 0; position < dataBytes; position += MAP_CHUNK_BYTES) {
+            long size = Math.min(MAP_CHUNK_BYTES, dataBytes - position);
+            ShortBuffer samples = channel.map(FileChannel.MapMode.READ_ONLY, dataOffset + position, size)
+                    .order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+            int count = samples.remaining();
+            PcmConverter.pcm16ToFloat(samples, audio, written, count);
+            written += count;
+        }
+        return audio;
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int fourCC(String id) {
+        return (id.charAt(0)) | (id.charAt(1) << 8) | (id.charAt(2) << 16) | (id.charAt(3) << 24);
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getChannels() {
+        return channels;
+    }
+
+    /**
+     * @return 样本总数（所有声道）
+     */
+    public long getSampleCount() {
+        return dataBytes / 2;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
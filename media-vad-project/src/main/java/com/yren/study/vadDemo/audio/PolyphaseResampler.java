@@ -0,0 +1,218 @@
+package com.yren.study.vadDemo.audio;
+
+import java.util.Arrays;
+
+/**
+ * 流式多相重采样器
+ * 以有理数比例 L/M 转换采样率（如 48k/44.1k/32k/8k → 16k），
+ * 使用 Kaiser 窗 sinc 低通原型滤波器的多相分解，只计算实际输出的样本；
+ * 所有缓冲区在构造时分配，处理过程中不再分配内存。非线程安全
+ * 滤波器的群延迟在内部补偿，输出与输入在时间上对齐；输入结束后需调用 {@link #flush(float[], int)} 取出剩余的输出
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class PolyphaseResampler {
+    // 原型滤波器单侧过零点数，决定每相的抽头数
+    private static final int ZERO_CROSSINGS = 16;
+    // 通带截止频率相对奈奎斯特频率的比例
+    private static final double ROLLOFF = 0.9;
+    private static final double KAISER_BETA = 8.0;
+    // 内部每次处理的最大输入样本数
+    private static final int CHUNK_SAMPLES = 4096;
+
+    private final int inputRate;
+    private final int outputRate;
+    private final int upFactor;
+    private final int downFactor;
+    private final int tapsPerPhase;
+    // coefficients[p][k] 为第 p 相的第 k 个抽头
+    private final float[][] coefficients;
+    // 原型滤波器的群延迟（上采样域样本数）
+    private final long delay;
+
+    // 输入缓冲：前 tapsPerPhase-1 个为历史样本，其后为本次输入
+    private final float[] buffer;
+    private int filled;
+    // 下一个输出样本在上采样域中相对 buffer[0] 的位置
+    private long position;
+    // 累计输入与输出的样本数，用于 flush 时确定剩余输出的数量
+    private long inputSamples;
+    private long outputSamples;
+
+    public PolyphaseResampler(int inputRate, int outputRate) {
+        if (inputRate <= 0 || outputRate <= 0) {
+            throw new IllegalArgumentException("采样率必须大于0: " + inputRate + " -> " + outputRate);
+        }
+        int gcd = gcd(inputRate, outputRate);
+        this.inputRate = inputRate;
+        this.outputRate = outputRate;
+        this.upFactor = outputRate / gcd;
+        this.downFactor = inputRate / gcd;
+
+        int maxFactor = Math.max(upFactor, downFactor);
+        this.tapsPerPhase = (int) Math.ceil(2.0 * ZERO_CROSSINGS * maxFactor / upFactor);
+        this.delay = ((long) upFactor * tapsPerPhase - 1) / 2;
+        this.coefficients = designFilter(upFactor, maxFactor, tapsPerPhase, delay);
+
+        this.buffer = new float[tapsPerPhase - 1 + CHUNK_SAMPLES];
+        reset();
+    }
+
+    /**
+     * 设计原型低通滤波器并按相位拆分，增益为 L 以补偿插零带来的幅度损失
+     * 滤波器以整数位置 center 为中心，使群延迟恰好是整数个上采样域样本，可以被精确补偿
+     */
+    private static float[][] designFilter(int upFactor, int maxFactor, int tapsPerPhase, long center) {
+        int length = upFactor * tapsPerPhase;
+        // 截止频率（以上采样域采样率归一化，单位：周期/样本）
+        double cutoff = 0.5 * ROLLOFF / maxFactor;
+        double halfLength = length / 2.0;
+        double i0Beta = besselI0(KAISER_BETA);
+
+        float[][] phases = new float[upFactor][tapsPerPhase];
+        for (int n = 0; n < length; n++) {
+            double x = n - center;
+            double sinc = x == 0 ? 2 * cutoff : Math.sin(2 * Math.PI * cutoff * x) / (Math.PI * x);
+            double ratio = x / halfLength;
+            double window = besselI0(KAISER_BETA * Math.sqrt(Math.max(0, 1 - ratio * ratio))) / i0Beta;
+            phases[n % upFactor][n / upFactor] = (float) (sinc * window * upFactor);
+        }
+        return phases;
+    }
+
+    private static double besselI0(double x) {
+        double sum = 1;
+        double term = 1;
+        double halfX = x / 2;
+        for (int k = 1; k < 50; k++) {
+            term *= (halfX / k) * (halfX / k);
+            sum += term;
+            if (term < sum * 1e-12) {
+                break;
+            }
+        }
+        return sum;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * 处理一段连续输入，状态在多次调用之间保持
+     *
+     * @param input 输入样本
+     * @param offset 起始位置
+     * @param length 样本数
+     * @param output 输出数组，容量需不小于 {@link #maxOutputSamples(int)}
+     * @param outputOffset 输出起始位置
+     * @return 输出的样本数
+     */
+    public int process(float[] input, int offset, int length, float[] output, int outputOffset) {
+        int written = 0;
+        int end = offset + length;
+
+        for (int position = offset; position < end; ) {
+            int count = Math.min(buffer.length - filled, end - position);
+            System.arraycopy(input, position, buffer, filled, count);
+            filled += count;
+            position += count;
+            inputSamples += count;
+
+            written += drain(output, outputOffset + written, Integer.MAX_VALUE);
+            compact();
+        }
+        return written;
+    }
+
+    /**
+     * 输入结束后补零，输出因延迟补偿而滞留的样本，使总输出数为 ceil(输入数 * L / M)
+     * 调用后需 {@link #reset()} 才能处理新的音频
+     *
+     * @param output 输出数组，容量需不小于 {@link #maxFlushSamples()}
+     * @param outputOffset 输出起始位置
+     * @return 输出的样本数
+     */
+    public int flush(float[] output, int outputOffset) {
+        long expected = (inputSamples * upFactor + downFactor - 1) / downFactor;
+        int written = 0;
+        while (outputSamples < expected) {
+            if (filled == buffer.length) {
+                compact();
+            }
+            buffer[filled++] = 0f;
+            written += drain(output, outputOffset + written, (int) (expected - outputSamples));
+        }
+        return written;
+    }
+
+    /**
+     * 只保留计算后续输出需要的历史样本
+     */
+    private void compact() {
+        int history = tapsPerPhase - 1;
+        int drop = filled - history;
+        System.arraycopy(buffer, drop, buffer, 0, history);
+        filled = history;
+        position -= (long) drop * upFactor;
+    }
+
+    /**
+     * 计算输入已就绪的输出样本，最多 limit 个
+     */
+    private int drain(float[] output, int outputOffset, int limit) {
+        int written = 0;
+        while (written < limit && position / upFactor < filled) {
+            int newest = (int) (position / upFactor);
+            float[] phase = coefficients[(int) (position % upFactor)];
+            float acc = 0;
+            for (int k = 0; k < tapsPerPhase; k++) {
+                acc += phase[k] * buffer[newest - k];
+            }
+            output[outputOffset + written++] = acc;
+            position += downFactor;
+        }
+        outputSamples += written;
+        return written;
+    }
+
+    /**
+     * @return 输入 length 个样本时最多产生的输出样本数
+     */
+    public int maxOutputSamples(int length) {
+        return (int) (((long) length * upFactor + downFactor - 1) / downFactor) + 1;
+    }
+
+    /**
+     * @return {@link #flush(float[], int)} 最多产生的输出样本数
+     */
+    public int maxFlushSamples() {
+        return (int) (delay / downFactor) + 2;
+    }
+
+    /**
+     * 清空历史样本，用于处理一段新的音频
+     */
+    public void reset() {
+        Arrays.fill(buffer, 0f);
+        filled = tapsPerPhase - 1;
+        // 第一个输出对齐第一个输入样本，并提前群延迟，补偿滤波器的延迟
+        position = (long) filled * upFactor + delay;
+        inputSamples = 0;
+        outputSamples = 0;
+    }
+
+    public int getInputRate() {
+        return inputRate;
+    }
+
+    public int getOutputRate() {
+        return outputRate;
+    }
+}
@@ -0,0 +1,146 @@
+package com.yren.study.vadDemo.audio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 流式PCM16 WAV写入器
+ * 先写入占位的RIFF头，样本按固定大小的块转换为16位PCM后直接写入文件，
+ * 关闭时回填RIFF与data块长度，内存占用与输出长度无关
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class WavFileWriter implements Closeable {
+    private static final int HEADER_BYTES = 44;
+    private static final int BITS_PER_SAMPLE = 16;
+    // 每次写入的样本数
+    private static final int CHUNK_SAMPLES = 8192;
+    // RIFF长度字段为32位无符号整数
+    private static final long MAX_DATA_BYTES = 0xFFFFFFFFL - (HEADER_BYTES - 8);
+
+    private final FileChannel channel;
+    private final int sampleRate;
+    private final int channels;
+    private final ByteBuffer chunk;
+    private final ShortBuffer chunkSamples;
+    private long samplesWritten = 0;
+
+    public WavFileWriter(String outputPath, int sampleRate, int channels) throws IOException {
+        this.channel = FileChannel.open(Paths.get(outputPath), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        this.chunk = ByteBuffer.allocateDirect(CHUNK_SAMPLES * 2).order(ByteOrder.LITTLE_ENDIAN);
+        this.chunkSamples = chunk.asShortBuffer();
+        // 按位置写入的占位头不会移动通道位置，样本数据需从头部之后开始写
+        writeHeader(0);
+        channel.position(HEADER_BYTES);
+    }
+
+    /**
+     * 写入[-1, 1]范围的float样本
+     *
+     * @param audioData 样本数据
+     * @param offset 起始位置
+     * @param length 样本数
+     * @throws IOException 写入异常
+     */
+    public void write(float[] audioData, int offset, int length) throws IOException {
+        int end = offset + length;
+        for (int position = offset; position < end; position += CHUNK_SAMPLES) {
+            int count = Math.min(CHUNK_SAMPLES, end - position);
+            // 将[-1, 1]范围的float转换为[-32768, 32767]范围的short，经由小端序视图批量写入块缓冲区
+            chunkSamples.clear();
+            PcmConverter.floatToPcm16(audioData, position, count, chunkSamples);
+            chunk.clear().position(count * 2);
+            flushChunk(count);
+        }
+    }
+
+    /**
+     * 写入静音样本
+     *
+     * @param sampleCount 静音样本数
+     * @throws IOException 写入异常
+     */
+    public void writeSilence(long sampleCount) throws IOException {
+        for (long remaining = sampleCount; remaining > 0; remaining -= CHUNK_SAMPLES) {
+            int count = (int) Math.min(CHUNK_SAMPLES, remaining);
+            chunk.clear();
+            for (int i = 0; i < count; i++) {
+                chunk.putShort((short) 0);
+            }
+            flushChunk(count);
+        }
+    }
+
+    private void flushChunk(int sampleCount) throws IOException {
+        if ((samplesWritten + sampleCount) * 2 > MAX_DATA_BYTES) {
+            throw new IOException("WAV数据超过4GB上限");
+        }
+        chunk.flip();
+        while (chunk.hasRemaining()) {
+            channel.write(chunk);
+        }
+        samplesWritten += sampleCount;
+    }
+
+    /**
+     * 在文件开头写入44字节的标准PCM WAV头
+     */
+    private void writeHeader(long dataBytes) throws IOException {
+        int blockAlign = channels * BITS_PER_SAMPLE / 8;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(new byte[]{'R', 'I', 'F', 'F'});
+        header.putInt((int) (dataBytes + HEADER_BYTES - 8));
+        header.put(new byte[]{'W', 'A', 'V', 'E'});
+        header.put(new byte[]{'f', 'm', 't', ' '});
+        header.putInt(16);
+        header.putShort((short) 1);  // PCM
+        header.putShort((short) channels);
+        header.putInt(sampleRate);
+        header.putInt(sampleRate * blockAlign);
+        header.putShort((short) blockAlign);
+        header.putShort((short) BITS_PER_SAMPLE);
+        header.put(new byte[]{'d', 'a', 't', 'a'});
+        header.putInt((int) dataBytes);
+        header.flip();
+        long position = 0;
+        while (header.hasRemaining()) {
+            position += channel.write(header, position);
+        }
+    }
+
+    /**
+     * @return 已写入的样本数
+     */
+    public long getSamplesWritten() {
+        return samplesWritten;
+    }
+
+    /**
+     * @return 已写入的音频时长（秒）
+     */
+    public float getDurationSeconds() {
+        return samplesWritten / (float) (sampleRate * channels);
+    }
+
+    /**
+     * 回填长度字段并关闭文件
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            writeHeader(samplesWritten * 2);
+        } finally {
+            channel.close();
+        }
+    }
+}
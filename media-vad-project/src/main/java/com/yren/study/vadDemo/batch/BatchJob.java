@@ -0,0 +1,68 @@
+package com.yren.study.vadDemo.batch;
+
+import com.yren.study.vadDemo.result.VadTimeline;
+
+import java.nio.file.Path;
+
+/**
+ * 批处理中单个文件在各阶段之间传递的数据
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+class BatchJob {
+    // 各阶段工作线程结束的标记
+    static final BatchJob END = new BatchJob(null, null);
+
+    private final Path input;
+    private final Path output;
+    private float[] audio;
+    private VadTimeline timeline;
+    // VAD概率缓存键，未启用缓存时为null
+    private String cacheKey;
+
+    BatchJob(Path input, Path output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    Path getInput() {
+        return input;
+    }
+
+    Path getOutput() {
+        return output;
+    }
+
+    float[] getAudio() {
+        return audio;
+    }
+
+    void setAudio(float[] audio) {
+        this.audio = audio;
+    }
+
+    VadTimeline getTimeline() {
+        return timeline;
+    }
+
+    void setTimeline(VadTimeline timeline) {
+        this.timeline = timeline;
+    }
+
+    String getCacheKey() {
+        return cacheKey;
+    }
+
+    void setCacheKey(String cacheKey) {
+        this.cacheKey = cacheKey;
+    }
+
+    /**
+     * 写出完成后释放音频数据，尽早归还堆内存
+     */
+    void clear() {
+        audio = null;
+        timeline = null;
+    }
+}
@@ -0,0 +1,305 @@
+package com.yren.study.vadDemo.batch;
+
+import com.yren.study.vadDemo.audio.AudioComposer;
+import com.yren.study.vadDemo.audio.AudioPreprocessor;
+import com.yren.study.vadDemo.result.VadTimeline;
+import com.yren.study.vadDemo.result.VoiceSegment;
+import com.yren.study.vadDemo.vad.SileroModel;
+import com.yren.study.vadDemo.vad.SileroVAD;
+import com.yren.study.vadDemo.vad.VadScoreCache;
+import com.yren.study.vadDemo.vad.VoiceSegmentExtractor;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量VAD流水线：解码 → VAD → 人声提取与合成写出
+ * 三个阶段各自拥有独立的工作线程数，阶段之间通过有界队列连接，
+ * 使文件I/O、FFmpeg解码与ONNX推理相互重叠；队列满时上游阻塞，内存中最多同时驻留有限个文件。
+ * 单个文件的失败只记录在统计中，不会中断整个批次
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class BatchPipeline {
+    private final SileroModel model;
+    private final int decodeWorkers;
+    private final int vadWorkers;
+    private final int writeWorkers;
+    private final int queueCapacity;
+
+    private float minSegmentDuration = 0.5f;
+    private float paddingSeconds = 0.2f;
+    private long progressIntervalMillis = 5000;
+    private VadScoreCache scoreCache;
+
+    /**
+     * @param model 共享的VAD模型，每个VAD工作线程创建各自的音频流
+     * @param decodeWorkers 解码线程数
+     * @param vadWorkers VAD推理线程数
+     * @param writeWorkers 合成写出线程数
+     * @param queueCapacity 阶段间队列容量（文件数）
+     */
+    public BatchPipeline(SileroModel model, int decodeWorkers, int vadWorkers, int writeWorkers, int queueCapacity) {
+        if (decodeWorkers <= 0 || vadWorkers <= 0 || writeWorkers <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("工作线程数和队列容量必须大于0");
+        }
+        this.model = model;
+        this.decodeWorkers = decodeWorkers;
+        this.vadWorkers = vadWorkers;
+        this.writeWorkers = writeWorkers;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public void setMinSegmentDuration(float minSegmentDuration) {
+        this.minSegmentDuration = minSegmentDuration;
+    }
+
+    public void setPaddingSeconds(float paddingSeconds) {
+        this.paddingSeconds = paddingSeconds;
+    }
+
+    /**
+     * 设置VAD概率缓存，命中缓存的文件在VAD阶段不再推理
+     */
+    public void setScoreCache(VadScoreCache scoreCache) {
+        this.scoreCache = scoreCache;
+    }
+
+    /**
+     * @param progressIntervalMillis 进度输出间隔，小于等于0时不输出
+     */
+    public void setProgressIntervalMillis(long progressIntervalMillis) {
+        this.progressIntervalMillis = progressIntervalMillis;
+    }
+
+    /**
+     * 处理一批文件，输出文件按输入目录的相对路径写入输出目录
+     *
+     * @param inputRoot 输入根目录
+     * @param files 待处理的文件
+     * @param outputRoot 输出根目录
+     * @return 批处理统计
+     * @throws InterruptedException 等待流水线结束时被中断
+     */
+    public BatchStatistics run(Path inputRoot, List<Path> files, Path outputRoot) throws InterruptedException {
+        BatchStatistics statistics = new BatchStatistics(files.size(), model.getSampleRate());
+        BlockingQueue<BatchJob> decoded = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<BatchJob> detected = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger nextFile = new AtomicInteger();
+        AtomicInteger runningDecoders = new AtomicInteger(decodeWorkers);
+        AtomicInteger runningDetectors = new AtomicInteger(vadWorkers);
+
+        ExecutorService decodePool = Executors.newFixedThreadPool(decodeWorkers, namedThreads("batch-decode"));
+        ExecutorService vadPool = Executors.newFixedThreadPool(vadWorkers, namedThreads("batch-vad"));
+        ExecutorService writePool = Executors.newFixedThreadPool(writeWorkers, namedThreads("batch-write"));
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(namedThreads("batch-progress"));
+        if (progressIntervalMillis > 0) {
+            reporter.scheduleAtFixedRate(() -> System.out.println(statistics.progressLine()
+                            + String.format(", 队列 解码→VAD %d, VAD→写出 %d", decoded.size(), detected.size())),
+                    progressIntervalMillis, progressIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+
+        try {
+            for (int i = 0; i < decodeWorkers; i++) {
+                decodePool.execute(() -> {
+                    try {
+                        decodeLoop(inputRoot, files, outputRoot, nextFile, decoded, statistics);
+                    } finally {
+                        finishStage(runningDecoders, decoded, vadWorkers);
+                    }
+                });
+            }
+            for (int i = 0; i < vadWorkers; i++) {
+                vadPool.execute(() -> {
+                    try {
+                        vadLoop(decoded, detected, statistics);
+                    } finally {
+                        finishStage(runningDetectors, detected, writeWorkers);
+                    }
+                });
+            }
+            for (int i = 0; i < writeWorkers; i++) {
+                writePool.execute(() -> writeLoop(detected, statistics));
+            }
+
+            decodePool.shutdown();
+            vadPool.shutdown();
+            writePool.shutdown();
+            decodePool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            vadPool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            writePool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } finally {
+            decodePool.shutdownNow();
+            vadPool.shutdownNow();
+            writePool.shutdownNow();
+            reporter.shutdownNow();
+        }
+        return statistics;
+    }
+
+    private void decodeLoop(Path inputRoot, List<Path> files, Path outputRoot, AtomicInteger nextFile,
+                            BlockingQueue<BatchJob> decoded, BatchStatistics statistics) {
+        AudioPreprocessor preprocessor = new AudioPreprocessor(model.getSampleRate());
+        int index;
+        while ((index = nextFile.getAndIncrement()) < files.size()) {
+            Path input = files.get(index);
+            BatchJob job = new BatchJob(input, outputRoot.resolve(inputRoot.relativize(input).toString()));
+            try {
+                long start = System.nanoTime();
+                job.setAudio(preprocessor.loadAndPreprocessWav(input.toString()));
+                if (scoreCache != null) {
+                    job.setCacheKey(scoreCache.audioKey(input));
+                    job.setTimeline(scoreCache.load(job.getCacheKey(), SileroVAD.getDefaultThreshold()));
+                }
+                statistics.recordDecoded(job.getAudio().length, System.nanoTime() - start);
+            } catch (Exception e) {
+                statistics.recordFailure("解码", input, e);
+                continue;
+            }
+            if (!put(decoded, job)) {
+                return;
+            }
+        }
+    }
+
+    private void vadLoop(BlockingQueue<BatchJob> decoded, BlockingQueue<BatchJob> detected,
+                         BatchStatistics statistics) {
+        SileroVAD vad = new SileroVAD();
+        try {
+            vad.useModel(model);
+            BatchJob job;
+            while ((job = decoded.take()) != BatchJob.END) {
+                try {
+                    if (job.getTimeline() == null) {
+                        long start = System.nanoTime();
+                        vad.resetState();
+                        job.setTimeline(vad.detectVoiceTimeline(job.getAudio()));
+                        statistics.recordDetected(System.nanoTime() - start);
+                        storeScores(job);
+                    } else {
+                        statistics.recordCacheHit();
+                    }
+                } catch (Exception e) {
+                    statistics.recordFailure("VAD", job.getInput(), e);
+                    job.clear();
+                    continue;
+                }
+                if (!put(detected, job)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("VAD工作线程启动失败: " + e.getMessage());
+            drainAsFailed(decoded, statistics, e);
+        } finally {
+            try {
+                vad.close();
+            } catch (Exception e) {
+                System.err.println("关闭VAD音频流失败: " + e.getMessage());
+            }
+        }
+    }
+
+    private void writeLoop(BlockingQueue<BatchJob> detected, BatchStatistics statistics) {
+        VoiceSegmentExtractor extractor = new VoiceSegmentExtractor();
+        AudioComposer composer = new AudioComposer(model.getSampleRate());
+        composer.setVerbose(false);
+        try {
+            BatchJob job;
+            while ((job = detected.take()) != BatchJob.END) {
+                try {
+                    long start = System.nanoTime();
+                    VadTimeline timeline = job.getTimeline();
+                    List<VoiceSegment> segments = extractor.extractVoiceSegments(timeline, minSegmentDuration);
+                    if (!segments.isEmpty()) {
+                        Path parent = job.getOutput().getParent();
+                        if (parent != null) {
+                            Files.createDirectories(parent);
+                        }
+                        composer.composeVoiceSegments(job.getAudio(), segments, job.getOutput().toString(),
+                                paddingSeconds);
+                    }
+                    statistics.recordWritten(!segments.isEmpty(), System.nanoTime() - start);
+                } catch (Exception e) {
+                    statistics.recordFailure("写出", job.getInput(), e);
+                } finally {
+                    job.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 缓存写入失败不影响该文件的后续处理
+     */
+    private void storeScores(BatchJob job) {
+        if (scoreCache == null) {
+            return;
+        }
+        try {
+            scoreCache.store(job.getCacheKey(), job.getTimeline());
+        } catch (Exception e) {
+            System.err.println("写入VAD缓存失败: " + job.getInput() + " (" + e.getMessage() + ")");
+        }
+    }
+
+    /**
+     * VAD线程无法工作时仍需消费到自己的结束标记，其间取到的文件记为失败，避免上游永久阻塞
+     */
+    private void drainAsFailed(BlockingQueue<BatchJob> decoded, BatchStatistics statistics, Exception error) {
+        BatchJob job;
+        try {
+            while ((job = decoded.take()) != BatchJob.END) {
+                statistics.recordFailure("VAD", job.getInput(), error);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 阶段内最后一个工作线程结束时，向下游每个工作线程发送结束标记
+     */
+    private static void finishStage(AtomicInteger running, BlockingQueue<BatchJob> downstream, int downstreamWorkers) {
+        if (running.decrementAndGet() == 0) {
+            for (int i = 0; i < downstreamWorkers; i++) {
+                if (!put(downstream, BatchJob.END)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static boolean put(BlockingQueue<BatchJob> queue, BatchJob job) {
+        try {
+            queue.put(job);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,126 @@
+package com.yren.study.vadDemo.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 批处理进度与吞吐统计，各阶段线程并发更新
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class BatchStatistics {
+    private final int totalFiles;
+    private final int sampleRate;
+    private final long startNanos = System.nanoTime();
+    private final AtomicInteger completedFiles = new AtomicInteger();
+    private final AtomicInteger failedFiles = new AtomicInteger();
+    private final AtomicInteger filesWithVoice = new AtomicInteger();
+    private final AtomicInteger cacheHits = new AtomicInteger();
+    private final LongAdder audioSamples = new LongAdder();
+    private final LongAdder decodeNanos = new LongAdder();
+    private final LongAdder vadNanos = new LongAdder();
+    private final LongAdder writeNanos = new LongAdder();
+    private final ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+
+    public BatchStatistics(int totalFiles, int sampleRate) {
+        this.totalFiles = totalFiles;
+        this.sampleRate = sampleRate;
+    }
+
+    void recordDecoded(long samples, long nanos) {
+        audioSamples.add(samples);
+        decodeNanos.add(nanos);
+    }
+
+    void recordDetected(long nanos) {
+        vadNanos.add(nanos);
+    }
+
+    void recordCacheHit() {
+        cacheHits.incrementAndGet();
+    }
+
+    void recordWritten(boolean hasVoice, long nanos) {
+        writeNanos.add(nanos);
+        if (hasVoice) {
+            filesWithVoice.incrementAndGet();
+        }
+        completedFiles.incrementAndGet();
+    }
+
+    void recordFailure(String stage, Object file, Throwable error) {
+        failedFiles.incrementAndGet();
+        failures.add(stage + " " + file + ": " + error);
+    }
+
+    public int getTotalFiles() {
+        return totalFiles;
+    }
+
+    public int getCompletedFiles() {
+        return completedFiles.get();
+    }
+
+    public int getFailedFiles() {
+        return failedFiles.get();
+    }
+
+    public int getFilesWithVoice() {
+        return filesWithVoice.get();
+    }
+
+    /**
+     * @return 命中VAD概率缓存、跳过推理的文件数
+     */
+    public int getCacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * @return 已处理完成（成功或失败）的文件数
+     */
+    public int getFinishedFiles() {
+        return completedFiles.get() + failedFiles.get();
+    }
+
+    public double getElapsedSeconds() {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+
+    public double getFilesPerSecond() {
+        return getFinishedFiles() / Math.max(1e-9, getElapsedSeconds());
+    }
+
+    /**
+     * @return 每秒处理的音频秒数（实时倍数）
+     */
+    public double getAudioSecondsPerSecond() {
+        return audioSamples.sum() / (double) sampleRate / Math.max(1e-9, getElapsedSeconds());
+    }
+
+    public List<String> getFailures() {
+        return new ArrayList<>(failures);
+    }
+
+    /**
+     * @return 单行进度信息
+     */
+    public String progressLine() {
+        int finished = getFinishedFiles();
+        return String.format("进度: %d/%d (%.1f%%), 失败 %d, %.1f files/s, %.1f audio-s/s",
+                finished, totalFiles, totalFiles == 0 ? 100.0 : finished * 100.0 / totalFiles,
+                getFailedFiles(), getFilesPerSecond(), getAudioSecondsPerSecond());
+    }
+
+    /**
+     * @return 各阶段累计耗时（线程时间之和），用于判断瓶颈阶段
+     */
+    public String stageLine() {
+        return String.format("阶段累计耗时: 解码 %.1fs, VAD %.1fs (缓存命中 %d), 合成写出 %.1fs",
+                decodeNanos.sum() / 1e9, vadNanos.sum() / 1e9, cacheHits.get(), writeNanos.sum() / 1e9);
+    }
+}
@@ -0,0 +1,93 @@
+package com.yren.study.vadDemo.batch;
+
+import com.yren.study.vadDemo.vad.ModelVariant;
+import com.yren.study.vadDemo.vad.SessionProfile;
+import com.yren.study.vadDemo.vad.SileroModel;
+import com.yren.study.vadDemo.vad.VadSampleRate;
+import com.yren.study.vadDemo.vad.VadScoreCache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 目录批量VAD入口
+ * 用法: BatchVADMain <输入目录> <输出目录> [模型路径]
+ * 各阶段线程数通过 -Dvad.batch.decodeWorkers / vadWorkers / writeWorkers 指定，
+ * 阶段间队列容量通过 -Dvad.batch.queueCapacity 指定，VAD概率缓存目录通过 -Dvad.score.cache 指定；
+ * -Dvad.sampleRate=8000 时以8kHz模式处理电话音频，输出wav同为8kHz；
+ * -Dvad.model.variant=int8 时使用模型同目录下的量化模型
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class BatchVADMain {
+    private static final String VAD_MODEL_PATH = "src/main/resources/model/silero_vad.onnx";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("用法: BatchVADMain <输入目录> <输出目录> [模型路径]");
+            System.exit(1);
+        }
+        Path inputRoot = Paths.get(args[0]);
+        Path outputRoot = Paths.get(args[1]);
+        String modelPath = args.length > 2 ? args[2] : VAD_MODEL_PATH;
+        String modelVariant = System.getProperty("vad.model.variant");
+        if (modelVariant != null) {
+            modelPath = ModelVariant.of(modelVariant).resolve(Paths.get(modelPath).toAbsolutePath().getParent()).toString();
+        }
+
+        int cpus = Runtime.getRuntime().availableProcessors();
+        int decodeWorkers = Integer.getInteger("vad.batch.decodeWorkers", Math.max(1, cpus / 4));
+        int vadWorkers = Integer.getInteger("vad.batch.vadWorkers", Math.max(1, cpus / 2));
+        int writeWorkers = Integer.getInteger("vad.batch.writeWorkers", 2);
+        int queueCapacity = Integer.getInteger("vad.batch.queueCapacity", 2 * vadWorkers);
+
+        List<Path> files = listWavFiles(inputRoot);
+        System.out.println("=== 批量VAD ===");
+        System.out.println("输入目录: " + inputRoot + " (" + files.size() + " 个文件)");
+        System.out.println("输出目录: " + outputRoot);
+        System.out.println("线程数: 解码 " + decodeWorkers + ", VAD " + vadWorkers + ", 写出 " + writeWorkers
+                + ", 队列容量 " + queueCapacity);
+
+        // 多个VAD线程并发调用同一个会话，算子内单线程，由流水线提供并行度
+        SessionProfile profile = SessionProfile.valueOf(
+                System.getProperty("vad.session.profile", SessionProfile.SINGLE_STREAM_LOW_LATENCY.name()));
+        String cacheDir = System.getProperty("vad.model.cache");
+        VadSampleRate sampleRate = VadSampleRate.of(Integer.getInteger("vad.sampleRate", 16000));
+        try (SileroModel model = SileroModel.load(modelPath, profile, cacheDir == null ? null : Paths.get(cacheDir),
+                sampleRate)) {
+            BatchPipeline pipeline = new BatchPipeline(model, decodeWorkers, vadWorkers, writeWorkers, queueCapacity);
+            String scoreCacheDir = System.getProperty("vad.score.cache");
+            if (scoreCacheDir != null) {
+                pipeline.setScoreCache(new VadScoreCache(Paths.get(scoreCacheDir), Paths.get(modelPath), sampleRate, ""));
+            }
+            BatchStatistics statistics = pipeline.run(inputRoot, files, outputRoot);
+
+            System.out.println(statistics.progressLine());
+            System.out.println(statistics.stageLine());
+            System.out.printf("耗时 %.1fs, 含人声文件 %d 个%n",
+                    statistics.getElapsedSeconds(), statistics.getFilesWithVoice());
+            List<String> failures = statistics.getFailures();
+            if (!failures.isEmpty()) {
+                System.err.println("失败文件 " + failures.size() + " 个:");
+                failures.forEach(failure -> System.err.println("  " + failure));
+                System.exit(2);
+            }
+        }
+    }
+
+    private static List<Path> listWavFiles(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".wav"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
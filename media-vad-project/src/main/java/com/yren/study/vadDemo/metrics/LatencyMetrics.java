@@ -0,0 +1,102 @@
+package com.yren.study.vadDemo.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 实时VAD链路的分阶段延迟统计
+ * 每个 {@link LatencyStage} 对应一个 {@link LatencyHistogram}，可按需查询 p50/p99/max，
+ * 也可以启动周期性汇总输出，用于检查实时延迟目标
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class LatencyMetrics implements AutoCloseable {
+    private final Map<LatencyStage, LatencyHistogram> histograms = new EnumMap<>(LatencyStage.class);
+    private ScheduledExecutorService reporter;
+
+    public LatencyMetrics() {
+        for (LatencyStage stage : LatencyStage.values()) {
+            histograms.put(stage, new LatencyHistogram());
+        }
+    }
+
+    public void record(LatencyStage stage, long nanos) {
+        histograms.get(stage).record(nanos);
+    }
+
+    public void recordSince(LatencyStage stage, long startNanos) {
+        histograms.get(stage).recordSince(startNanos);
+    }
+
+    public LatencyHistogram getHistogram(LatencyStage stage) {
+        return histograms.get(stage);
+    }
+
+    /**
+     * @return 指定阶段某个百分位的延迟（毫秒）
+     */
+    public double getPercentileMillis(LatencyStage stage, double percentile) {
+        return histograms.get(stage).getPercentileNanos(percentile) / 1e6;
+    }
+
+    /**
+     * @return 多行汇总，每个阶段一行 p50/p99/max
+     */
+    public String summary() {
+        StringBuilder builder = new StringBuilder("=== 延迟统计 (ms) ===");
+        for (LatencyStage stage : LatencyStage.values()) {
+            LatencyHistogram histogram = histograms.get(stage);
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            builder.append(String.format("%n%-4s n=%-8d p50=%8.3f  p99=%8.3f  max=%8.3f",
+                    stage.getLabel(), histogram.getCount(),
+                    histogram.getPercentileNanos(50) / 1e6,
+                    histogram.getPercentileNanos(99) / 1e6,
+                    histogram.getMaxNanos() / 1e6));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 启动后台线程周期性输出汇总
+     *
+     * @param intervalMillis 输出间隔
+     * @param resetAfterReport 输出后是否清空，为true时每次汇总只反映最近一个周期
+     */
+    public synchronized void startPeriodicSummary(long intervalMillis, boolean resetAfterReport) {
+        if (reporter != null) {
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "LatencyMetricsReporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> {
+            System.out.println(summary());
+            if (resetAfterReport) {
+                reset();
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+
+    /**
+     * 停止周期性汇总
+     */
+    @Override
+    public synchronized void close() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.yren.study.vadDemo.metrics;
+
+/**
+ * 实时VAD链路的各个阶段
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public enum LatencyStage {
+    /** TargetDataLine.read 返回到帧进入队列：格式转换、重采样与入队 */
+    CAPTURE("采集"),
+    /** 帧进入队列到被VAD线程取出 */
+    QUEUE_WAIT("排队"),
+    /** 写入环形缓冲区并取出一个推理窗口 */
+    WINDOWING("分窗"),
+    /** 单个窗口的模型推理 */
+    INFERENCE("推理"),
+    /** 分段状态机对一个窗口的判定 */
+    SEGMENT_DECISION("判定"),
+    /** TargetDataLine.read 返回到该窗口判定完成 */
+    END_TO_END("端到端");
+
+    private final String label;
+
+    LatencyStage(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,62 @@
+package com.yren.study.vadDemo.mic;
+
+/**
+ * 可复用的音频帧
+ * 由 {@link AudioFrameQueue} 预分配并循环使用，消费者处理完后需归还给队列
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class AudioFrame {
+    private final float[] samples;
+    private int length;
+    // 采集完成时的 System.nanoTime()
+    private long captureNanos;
+    // 进入队列时的 System.nanoTime()
+    private long publishNanos;
+    // 帧序号，从0开始递增，可用于发现丢帧
+    private long sequence;
+
+    AudioFrame(int capacity) {
+        this.samples = new float[capacity];
+    }
+
+    /**
+     * @return 样本缓冲区，有效数据为前 getLength() 个
+     */
+    public float[] getSamples() {
+        return samples;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    void setLength(int length) {
+        this.length = length;
+    }
+
+    public long getCaptureNanos() {
+        return captureNanos;
+    }
+
+    void setCaptureNanos(long captureNanos) {
+        this.captureNanos = captureNanos;
+    }
+
+    public long getPublishNanos() {
+        return publishNanos;
+    }
+
+    void setPublishNanos(long publishNanos) {
+        this.publishNanos = publishNanos;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+}
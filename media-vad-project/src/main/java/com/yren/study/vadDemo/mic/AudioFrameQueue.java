@@ -0,0 +1,295 @@
+package com.yren.study.vadDemo.mic;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 有界的单生产者/单消费者音频帧队列
+ * 所有帧在创建时预分配并循环复用，队列满时按溢出策略处理，并统计丢帧数和消费延迟
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class AudioFrameQueue {
+
+    /**
+     * 队列满时的溢出策略
+     */
+    public enum OverflowPolicy {
+        // 丢弃最旧的帧，保证消费者拿到最新的音频
+        DROP_OLDEST,
+        // 丢弃新采集的帧
+        DROP_NEWEST,
+        // 阻塞采集线程直到消费者腾出空间
+        BLOCK
+    }
+
+    private final OverflowPolicy overflowPolicy;
+    private final AudioFrame[] ring;
+    private int head = 0;
+    private int count = 0;
+    // 空闲帧池：队列容量 + 生产者、消费者各持有一帧
+    private final ArrayDeque<AudioFrame> freeFrames;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    // 统计信息
+    private long nextSequence = 0;
+    private long publishedFrames = 0;
+    private long consumedFrames = 0;
+    private long droppedFrames = 0;
+    private int maxDepth = 0;
+    private long maxLagNanos = 0;
+
+    /**
+     * @param capacity 队列可容纳的帧数
+     * @param frameSize 每帧的最大样本数
+     * @param overflowPolicy 队列满时的溢出策略
+     */
+    public AudioFrameQueue(int capacity, int frameSize, OverflowPolicy overflowPolicy) {
+        if (capacity <= 0 || frameSize <= 0) {
+            throw new IllegalArgumentException("队列容量和帧大小必须大于0");
+        }
+        this.overflowPolicy = overflowPolicy;
+        this.ring = new AudioFrame[capacity];
+        this.freeFrames = new ArrayDeque<>(capacity + 2);
+        for (int i = 0; i < capacity + 2; i++) {
+            freeFrames.push(new AudioFrame(frameSize));
+        }
+    }
+
+    // ======================== 生产者 ========================
+
+    /**
+     * 获取一个空闲帧用于写入
+     * 空闲帧耗尽时：DROP_OLDEST 回收队首的帧，BLOCK 等待消费者归还，DROP_NEWEST 返回null
+     *
+     * @return 空闲帧；按策略需要丢弃本次数据时返回null
+     * @throws InterruptedException 阻塞等待时被中断
+     */
+    public AudioFrame acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (freeFrames.isEmpty()) {
+                if (overflowPolicy == OverflowPolicy.BLOCK) {
+                    notFull.await();
+                } else if (overflowPolicy == OverflowPolicy.DROP_OLDEST && count > 0) {
+                    freeFrames.push(dequeue());
+                    droppedFrames++;
+                } else {
+                    droppedFrames++;
+                    return null;
+                }
+            }
+            return freeFrames.pop();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 发布一个已写入数据的帧
+     *
+     * @param frame 通过 acquire 获取的帧
+     * @return 帧是否进入队列，DROP_NEWEST 策略下队列满时返回false
+     * @throws InterruptedException 阻塞等待时被中断
+     */
+    public boolean publish(AudioFrame frame) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == ring.length) {
+                if (overflowPolicy == OverflowPolicy.BLOCK) {
+                    notFull.await();
+                } else if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+                    freeFrames.push(dequeue());
+                    droppedFrames++;
+                } else {
+                    freeFrames.push(frame);
+                    droppedFrames++;
+                    return false;
+                }
+            }
+
+            frame.setSequence(nextSequence++);
+            frame.setPublishNanos(System.nanoTime());
+            ring[(head + count) % ring.length] = frame;
+            count++;
+            publishedFrames++;
+            maxDepth = Math.max(maxDepth, count);
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ======================== 消费者 ========================
+
+    /**
+     * 获取队首的帧（非阻塞），处理完后需调用 {@link #release(AudioFrame)} 归还
+     * @return 音频帧，队列为空时返回null
+     */
+    public AudioFrame poll() {
+        lock.lock();
+        try {
+            return count == 0 ? null : consume();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取队首的帧（阻塞），处理完后需调用 {@link #release(AudioFrame)} 归还
+     * @throws InterruptedException 等待时被中断
+     */
+    public AudioFrame take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                notEmpty.await();
+            }
+            return consume();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取队首的帧（限时阻塞），处理完后需调用 {@link #release(AudioFrame)} 归还
+     * @return 音频帧，超时返回null
+     * @throws InterruptedException 等待时被中断
+     */
+    public AudioFrame poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return consume();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 归还处理完的帧
+     */
+    public void release(AudioFrame frame) {
+        lock.lock();
+        try {
+            freeFrames.push(frame);
+            notFull.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private AudioFrame consume() {
+        AudioFrame frame = dequeue();
+        consumedFrames++;
+        maxLagNanos = Math.max(maxLagNanos, System.nanoTime() - frame.getCaptureNanos());
+        notFull.signal();
+        return frame;
+    }
+
+    private AudioFrame dequeue() {
+        AudioFrame frame = ring[head];
+        ring[head] = null;
+        head = (head + 1) % ring.length;
+        count--;
+        return frame;
+    }
+
+    // ======================== 统计信息 ========================
+
+    /**
+     * @return 等待消费的帧数
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int capacity() {
+        return ring.length;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public long getPublishedFrames() {
+        lock.lock();
+        try {
+            return publishedFrames;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getConsumedFrames() {
+        lock.lock();
+        try {
+            return consumedFrames;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDroppedFrames() {
+        lock.lock();
+        try {
+            return droppedFrames;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 队列出现过的最大积压帧数
+     */
+    public int getMaxDepth() {
+        lock.lock();
+        try {
+            return maxDepth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 当前消费延迟：队首帧从采集完成到现在的时间（纳秒），队列为空时为0
+     */
+    public long getConsumerLagNanos() {
+        lock.lock();
+        try {
+            return count == 0 ? 0 : System.nanoTime() - ring[head].getCaptureNanos();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 出现过的最大消费延迟：帧从采集完成到被消费者取走的时间（纳秒）
+     */
+    public long getMaxConsumerLagNanos() {
+        lock.lock();
+        try {
+            return maxLagNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
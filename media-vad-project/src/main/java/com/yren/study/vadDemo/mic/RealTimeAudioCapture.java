@@ -1,13 +1,17 @@
 package com.yren.study.vadDemo.mic;
 
+import com.yren.study.vadDemo.audio.AudioFormatAdapter;
+import com.yren.study.vadDemo.audio.PcmConverter;
+import com.yren.study.vadDemo.metrics.LatencyMetrics;
+import com.yren.study.vadDemo.metrics.LatencyStage;
+
 import javax.sound.sampled.*;
-import java.io.ByteArrayOutputStream;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Arrays;
 
 /**
  * 实时音频捕获类
  * 使用Java Sound API从麦克风获取音频数据
+ * 设备不支持16kHz单声道时以原生采样率/声道采集，在采集线程内混音并重采样到16kHz
  * 
  * @author ChenYu ren
  * @date 2025/1/27
@@ -23,16 +27,36 @@ public class RealTimeAudioCapture {
     // 缓冲区大小（毫秒）
     private static final int BUFFER_SIZE_MS = 100;
     private static final int BUFFER_SIZE_BYTES = (SAMPLE_RATE * SAMPLE_SIZE_IN_BITS * CHANNELS / 8) * BUFFER_SIZE_MS / 1000;
+    private static final int BUFFER_SIZE_SAMPLES = BUFFER_SIZE_BYTES / 2;
+    // 重采样后每帧样本数会有少量波动，帧缓冲区预留余量
+    private static final int FRAME_SLACK_SAMPLES = 16;
+    // 依次尝试的设备采样率与声道数
+    private static final float[] CANDIDATE_SAMPLE_RATES = {SAMPLE_RATE, 48000, 44100, 32000};
+    private static final int[] CANDIDATE_CHANNELS = {CHANNELS, 2};
+    // 默认队列容量（帧），约5秒音频
+    private static final int DEFAULT_QUEUE_CAPACITY = 50;
     
     private AudioFormat audioFormat;
     private TargetDataLine targetDataLine;
-    private boolean isCapturing = false;
+    private volatile boolean isCapturing = false;
     private Thread captureThread;
+    // 设备格式与目标格式不同时的混音/重采样器，只在采集线程中使用
+    private AudioFormatAdapter formatAdapter;
+    private int bufferSizeBytes = BUFFER_SIZE_BYTES;
+    private volatile LatencyMetrics latencyMetrics;
     
-    // 音频数据队列，用于在不同线程间传递数据
-    private BlockingQueue<float[]> audioQueue;
+    // 音频数据队列，用于在不同线程间传递数据；帧缓冲区预分配并循环复用
+    private final AudioFrameQueue audioQueue;
     
     public RealTimeAudioCapture() {
+        this(DEFAULT_QUEUE_CAPACITY, AudioFrameQueue.OverflowPolicy.DROP_OLDEST);
+    }
+    
+    /**
+     * @param queueCapacity 队列可容纳的帧数（每帧100ms）
+     * @param overflowPolicy 消费者跟不上时的溢出策略
+     */
+    public RealTimeAudioCapture(int queueCapacity, AudioFrameQueue.OverflowPolicy overflowPolicy) {
         // 初始化音频格式
         audioFormat = new AudioFormat(
             SAMPLE_RATE,
@@ -42,7 +66,7 @@ public class RealTimeAudioCapture {
             BIG_ENDIAN
         );
         
-        audioQueue = new LinkedBlockingQueue<>();
+        audioQueue = new AudioFrameQueue(queueCapacity, BUFFER_SIZE_SAMPLES + FRAME_SLACK_SAMPLES, overflowPolicy);
     }
     
     /**
@@ -50,20 +74,45 @@ public class RealTimeAudioCapture {
      * @throws LineUnavailableException 如果音频设备不可用
      */
     public void initialize() throws LineUnavailableException {
-        DataLine.Info info = new DataLine.Info(TargetDataLine.class, audioFormat);
+        DataLine.Info info = findSupportedLine();
         
-        if (!AudioSystem.isLineSupported(info)) {
+        if (info == null) {
             throw new LineUnavailableException("不支持指定的音频格式");
         }
         
+        int channels = audioFormat.getChannels();
+        int deviceRate = (int) audioFormat.getSampleRate();
+        bufferSizeBytes = deviceRate * channels * (SAMPLE_SIZE_IN_BITS / 8) * BUFFER_SIZE_MS / 1000;
+        formatAdapter = deviceRate == SAMPLE_RATE && channels == CHANNELS
+                ? null : new AudioFormatAdapter(deviceRate, channels, SAMPLE_RATE);
+        
         targetDataLine = (TargetDataLine) AudioSystem.getLine(info);
-        targetDataLine.open(audioFormat, BUFFER_SIZE_BYTES);
+        targetDataLine.open(audioFormat, bufferSizeBytes);
         
         System.out.println("音频捕获设备初始化成功");
-        System.out.println("采样率: " + SAMPLE_RATE + " Hz");
+        System.out.println("采样率: " + deviceRate + " Hz" + (formatAdapter != null ? " (重采样到 " + SAMPLE_RATE + " Hz)" : ""));
         System.out.println("采样位数: " + SAMPLE_SIZE_IN_BITS + " bits");
-        System.out.println("声道数: " + CHANNELS);
-        System.out.println("缓冲区大小: " + BUFFER_SIZE_BYTES + " bytes");
+        System.out.println("声道数: " + channels + (channels != CHANNELS ? " (混音为单声道)" : ""));
+        System.out.println("缓冲区大小: " + bufferSizeBytes + " bytes");
+        System.out.println("队列容量: " + audioQueue.capacity() + " 帧, 溢出策略: " + audioQueue.getOverflowPolicy());
+    }
+    
+    /**
+     * 优先使用16kHz单声道，设备不支持时依次尝试其他原生采样率和声道数
+     * @return 支持的数据线信息，同时更新 audioFormat；都不支持时返回null
+     */
+    private DataLine.Info findSupportedLine() {
+        for (float sampleRate : CANDIDATE_SAMPLE_RATES) {
+            for (int channels : CANDIDATE_CHANNELS) {
+                AudioFormat format = new AudioFormat(sampleRate, SAMPLE_SIZE_IN_BITS, channels, SIGNED, BIG_ENDIAN);
+                DataLine.Info info = new DataLine.Info(TargetDataLine.class, format);
+                if (AudioSystem.isLineSupported(info)) {
+                    audioFormat = format;
+                    return info;
+                }
+            }
+        }
+        return null;
     }
     
     /**
@@ -101,6 +150,8 @@ public class RealTimeAudioCapture {
         }
         
         if (captureThread != null) {
+            // BLOCK 策略下采集线程可能在等待队列空间
+            captureThread.interrupt();
             try {
                 captureThread.join(1000); // 等待最多1秒
             } catch (InterruptedException e) {
@@ -115,7 +166,9 @@ public class RealTimeAudioCapture {
      * 音频捕获的核心方法
      */
     private void captureAudio() {
-        byte[] buffer = new byte[BUFFER_SIZE_BYTES];
+        byte[] buffer = new byte[bufferSizeBytes];
+        // 设备原生格式的交错样本，仅在需要混音/重采样时使用
+        float[] interleaved = formatAdapter == null ? null : new float[bufferSizeBytes / 2];
         
         while (isCapturing) {
             try {
@@ -123,14 +176,20 @@ public class RealTimeAudioCapture {
                 int bytesRead = targetDataLine.read(buffer, 0, buffer.length);
                 
                 if (bytesRead > 0) {
-                    // 将字节数据转换为float数组
-                    float[] audioData = bytesToNormalizedFloat(buffer, bytesRead);
+                    long captureNanos = System.nanoTime();
                     
-                    // 将音频数据放入队列
-                    if (!audioQueue.offer(audioData)) {
-                        System.out.println("警告: 音频队列已满，丢弃数据");
+                    // 从队列获取一个空闲帧，将字节数据转换后写入
+                    AudioFrame frame = audioQueue.acquire();
+                    if (frame == null || !publishFrame(frame, buffer, bytesRead, interleaved, captureNanos)) {
+                        long dropped = audioQueue.getDroppedFrames();
+                        if (dropped == 1 || dropped % 100 == 0) {
+                            System.out.println("警告: 音频队列已满，已丢弃 " + dropped + " 帧");
+                        }
                     }
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
             } catch (Exception e) {
                 System.err.println("音频捕获错误: " + e.getMessage());
                 break;
@@ -138,40 +197,89 @@ public class RealTimeAudioCapture {
         }
     }
     
+    private boolean publishFrame(AudioFrame frame, byte[] buffer, int bytesRead, float[] interleaved,
+                                 long captureNanos) throws InterruptedException {
+        if (formatAdapter == null) {
+            frame.setLength(bytesToNormalizedFloat(buffer, bytesRead, frame.getSamples()));
+        } else {
+            int samples = bytesToNormalizedFloat(buffer, bytesRead, interleaved);
+            frame.setLength(formatAdapter.process(interleaved, 0, samples, frame.getSamples(), 0));
+        }
+        frame.setCaptureNanos(captureNanos);
+        boolean published = audioQueue.publish(frame);
+        LatencyMetrics metrics = latencyMetrics;
+        if (published && metrics != null) {
+            metrics.record(LatencyStage.CAPTURE, frame.getPublishNanos() - captureNanos);
+        }
+        return published;
+    }
+    
     /**
      * 将字节数组转换为归一化的float数组
      * @param audioBytes 音频字节数据
      * @param length 有效数据长度
-     * @return 归一化的float数组
+     * @param dest 目标数组
+     * @return 转换的样本数
      */
-    private float[] bytesToNormalizedFloat(byte[] audioBytes, int length) {
-        float[] floatArray = new float[length / 2];
-        
-        for (int i = 0; i < floatArray.length; i++) {
-            // 将两个字节组合成short（小端序）
-            short sample = (short) ((audioBytes[i * 2 + 1] << 8) | (audioBytes[i * 2] & 0xFF));
-            // 归一化到[-1, 1]
-            floatArray[i] = sample / 32768.0f;
-        }
-        
-        return floatArray;
+    private int bytesToNormalizedFloat(byte[] audioBytes, int length, float[] dest) {
+        return PcmConverter.pcm16ToFloat(audioBytes, 0, Math.min(length, dest.length * 2), dest, 0);
     }
     
     /**
-     * 获取音频数据（非阻塞）
+     * 设置延迟统计，采集线程会记录每帧从 read 返回到入队的耗时，为null时不统计
+     */
+    public void setLatencyMetrics(LatencyMetrics latencyMetrics) {
+        this.latencyMetrics = latencyMetrics;
+    }
+    
+    /**
+     * 获取音频帧（非阻塞），帧缓冲区会被复用，处理完后需调用 {@link #releaseFrame(AudioFrame)}
+     * @return 音频帧，如果没有数据则返回null
+     */
+    public AudioFrame pollFrame() {
+        return audioQueue.poll();
+    }
+    
+    /**
+     * 获取音频帧（阻塞），帧缓冲区会被复用，处理完后需调用 {@link #releaseFrame(AudioFrame)}
+     * @return 音频帧
+     * @throws InterruptedException 如果线程被中断
+     */
+    public AudioFrame takeFrame() throws InterruptedException {
+        return audioQueue.take();
+    }
+    
+    /**
+     * 归还处理完的音频帧
+     */
+    public void releaseFrame(AudioFrame frame) {
+        audioQueue.release(frame);
+    }
+    
+    /**
+     * 获取音频数据（非阻塞），返回数据的拷贝
      * @return 音频数据，如果没有数据则返回null
      */
     public float[] getAudioData() {
-        return audioQueue.poll();
+        AudioFrame frame = audioQueue.poll();
+        return frame == null ? null : copyAndRelease(frame);
     }
     
     /**
-     * 获取音频数据（阻塞）
+     * 获取音频数据（阻塞），返回数据的拷贝
      * @return 音频数据
      * @throws InterruptedException 如果线程被中断
      */
     public float[] getAudioDataBlocking() throws InterruptedException {
-        return audioQueue.take();
+        return copyAndRelease(audioQueue.take());
+    }
+    
+    private float[] copyAndRelease(AudioFrame frame) {
+        try {
+            return Arrays.copyOf(frame.getSamples(), frame.getLength());
+        } finally {
+            audioQueue.release(frame);
+        }
     }
     
     /**
@@ -182,6 +290,27 @@ public class RealTimeAudioCapture {
         return audioQueue.size();
     }
     
+    /**
+     * @return 因队列满而丢弃的帧数
+     */
+    public long getDroppedFrames() {
+        return audioQueue.getDroppedFrames();
+    }
+    
+    /**
+     * @return 当前消费延迟（毫秒）：最早一帧等待消费的时间
+     */
+    public long getConsumerLagMillis() {
+        return audioQueue.getConsumerLagNanos() / 1_000_000;
+    }
+    
+    /**
+     * @return 音频帧队列，可获取更详细的统计信息
+     */
+    public AudioFrameQueue getAudioQueue() {
+        return audioQueue;
+    }
+    
     /**
      * 检查是否正在捕获音频
      * @return true如果正在捕获
@@ -191,7 +320,7 @@ public class RealTimeAudioCapture {
     }
     
     /**
-     * 获取音频格式信息
+     * 获取音频格式信息（设备实际采集格式，输出给VAD的帧始终为16kHz单声道）
      * @return AudioFormat对象
      */
     public AudioFormat getAudioFormat() {
@@ -1,17 +1,24 @@
 package com.yren.study.vadDemo.mic;
 
-import com.yren.study.vadDemo.result.VadResult;
+import com.yren.study.vadDemo.audio.FloatRingBuffer;
+import com.yren.study.vadDemo.metrics.LatencyMetrics;
+import com.yren.study.vadDemo.metrics.LatencyStage;
+import com.yren.study.vadDemo.result.SpeechChunk;
+import com.yren.study.vadDemo.result.VadTimeline;
 import com.yren.study.vadDemo.result.VoiceSegment;
+import com.yren.study.vadDemo.vad.SegmentListener;
 import com.yren.study.vadDemo.vad.SileroVAD;
+import com.yren.study.vadDemo.vad.SpeechSegmentPublisher;
 import com.yren.study.vadDemo.vad.VoiceSegmentExtractor;
 
 import javax.sound.sampled.LineUnavailableException;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Flow;
 
 /**
  * 实时VAD演示程序
  * 结合麦克风音频捕获和VAD检测，实现实时语音活动检测
+ * 各阶段延迟记录在 {@link LatencyMetrics} 中，按 -Dvad.metrics.interval（秒，默认10，0为关闭）周期输出汇总
  * 
  * @author ChenYu ren
  * @date 2025/1/27
@@ -19,7 +26,10 @@ import java.util.List;
 public class RealTimeVADDemo {
     
     private static final String VAD_MODEL_PATH = "/Users/yren/Desktop/silero_vad.onnx";
-    private static final int AUDIO_BUFFER_SIZE = 1600; // 100ms at 16kHz
+    private static final int SAMPLE_RATE = 16000;
+    private static final float VOICE_THRESHOLD = 0.3f;
+    // 环形缓冲区容量，可容纳约1秒音频
+    private static final int RING_BUFFER_SIZE = SAMPLE_RATE;
     
     public static void main(String[] args) {
         if (args.length > 0) {
@@ -29,6 +39,8 @@ public class RealTimeVADDemo {
         String modelPath = System.getProperty("vad.model.path", VAD_MODEL_PATH);
         
         RealTimeAudioCapture audioCapture = new RealTimeAudioCapture();
+        LatencyMetrics metrics = new LatencyMetrics();
+        audioCapture.setLatencyMetrics(metrics);
         SileroVAD vad = new SileroVAD();
         VoiceSegmentExtractor extractor = new VoiceSegmentExtractor();
         
@@ -46,9 +58,13 @@ public class RealTimeVADDemo {
             
             // 开始音频捕获
             audioCapture.startCapture();
+            long metricsInterval = Long.getLong("vad.metrics.interval", 10);
+            if (metricsInterval > 0) {
+                metrics.startPeriodicSummary(metricsInterval * 1000, false);
+            }
             
             // 创建VAD处理线程
-            Thread vadThread = new Thread(() -> processRealTimeVAD(audioCapture, vad, extractor));
+            Thread vadThread = new Thread(() -> processRealTimeVAD(audioCapture, vad, extractor, metrics));
             vadThread.setName("RealTimeVADThread");
             vadThread.start();
             
@@ -65,6 +81,8 @@ public class RealTimeVADDemo {
                 Thread.currentThread().interrupt();
             }
             
+            metrics.close();
+            System.out.println(metrics.summary());
             System.out.println("\n实时VAD系统已停止");
             
         } catch (LineUnavailableException e) {
@@ -77,82 +95,89 @@ public class RealTimeVADDemo {
     
     /**
      * 实时VAD处理方法
+     * 采集到的音频写入预分配的环形缓冲区，每凑满一个512样本窗口就推理一次，窗口按 hop 前移；
+     * 同一个VAD实例持续处理整条音频流，循环状态在窗口之间保持连续
      */
     private static void processRealTimeVAD(RealTimeAudioCapture audioCapture, 
                                           SileroVAD vad, 
-                                          VoiceSegmentExtractor extractor) {
+                                          VoiceSegmentExtractor extractor,
+                                          LatencyMetrics metrics) {
+        
+        int windowSize = vad.getWindowSizeSamples();
+        int hopSize = Integer.getInteger("vad.hop", windowSize);
+        if (hopSize <= 0 || hopSize > windowSize) {
+            System.err.println("vad.hop 需在 1-" + windowSize + " 之间，使用默认值 " + windowSize);
+            hopSize = windowSize;
+        }
         
-        List<Float> audioBuffer = new ArrayList<>();
-        List<VadResult> vadResults = new ArrayList<>();
+        FloatRingBuffer audioBuffer = new FloatRingBuffer(RING_BUFFER_SIZE);
+        float[] window = new float[windowSize];
+        VadTimeline timeline = new VadTimeline(hopSize, SAMPLE_RATE, VOICE_THRESHOLD);
         int frameCount = 0;
         long startTime = System.currentTimeMillis();
         
-        // 语音状态跟踪
-        boolean wasVoiceActive = false;
-        long voiceStartTime = 0;
+        // 语音状态跟踪：按音频样本位置输出语音开始/结束，并把片段音频（含前置填充）流式发布给订阅者
+        SpeechSegmentPublisher segmentPublisher = new SpeechSegmentPublisher(SAMPLE_RATE, new SegmentListener() {
+            @Override
+            public void onSegmentStart(long startSample) {
+                System.out.printf("[%.1fs] 🎤 语音开始\n", startSample / (double) SAMPLE_RATE);
+            }
+            
+            @Override
+            public void onSegmentEnd(long startSample, long endSample) {
+                System.out.printf("[%.1fs] 🔇 语音结束 (持续时间: %dms)\n", 
+                    endSample / (double) SAMPLE_RATE, (endSample - startSample) * 1000 / SAMPLE_RATE);
+            }
+        });
+        segmentPublisher.subscribe(new SegmentAudioSubscriber());
         
         while (!Thread.currentThread().isInterrupted() && audioCapture.isCapturing()) {
             try {
-                // 获取音频数据
-                float[] audioData = audioCapture.getAudioDataBlocking();
+                // 获取音频帧，写入环形缓冲区后立即归还
+                AudioFrame frame = audioCapture.takeFrame();
                 
-                if (audioData != null) {
+                if (frame != null) {
                     frameCount++;
+                    long takenNanos = System.nanoTime();
+                    // 帧归还后会被复用，先记下采集时刻
+                    long captureNanos = frame.getCaptureNanos();
+                    metrics.record(LatencyStage.QUEUE_WAIT, takenNanos - frame.getPublishNanos());
                     
-                    // 将音频数据添加到缓冲区
-                    for (float sample : audioData) {
-                        audioBuffer.add(sample);
+                    try {
+                        audioBuffer.write(frame.getSamples(), 0, frame.getLength());
+                        segmentPublisher.writeAudio(frame.getSamples(), 0, frame.getLength());
+                    } finally {
+                        audioCapture.releaseFrame(frame);
                     }
                     
-                    // 当缓冲区达到指定大小时进行VAD检测
-                    if (audioBuffer.size() >= AUDIO_BUFFER_SIZE) {
-                        // 转换为数组
-                        float[] vadInput = new float[AUDIO_BUFFER_SIZE];
-                        for (int i = 0; i < AUDIO_BUFFER_SIZE; i++) {
-                            vadInput[i] = audioBuffer.get(i);
-                        }
+                    // 每凑满一个窗口执行一次VAD检测；窗口的最新样本来自当前帧，端到端延迟从该帧采集时刻算起
+                    long stageStart = takenNanos;
+                    while (audioBuffer.available() >= windowSize) {
+                        audioBuffer.peek(window, 0, windowSize);
+                        audioBuffer.skip(hopSize);
+                        long windowReady = System.nanoTime();
+                        metrics.record(LatencyStage.WINDOWING, windowReady - stageStart);
                         
-                        // 执行VAD检测
-                        List<VadResult> currentResults = vad.detectVoiceActivity(vadInput);
-                        vadResults.addAll(currentResults);
+                        float score = vad.processWindow(window, 0);
+                        long inferenceDone = System.nanoTime();
+                        metrics.record(LatencyStage.INFERENCE, inferenceDone - windowReady);
                         
-                        // 分析VAD结果
-                        boolean isVoiceActive = false;
-                        for (VadResult result : currentResults) {
-                            if (result.isVoice()) {
-                                isVoiceActive = true;
-                                break;
-                            }
-                        }
-                        
-                        // 检测语音状态变化
-                        long currentTime = System.currentTimeMillis();
-                        if (isVoiceActive && !wasVoiceActive) {
-                            // 语音开始
-                            voiceStartTime = currentTime;
-                            System.out.printf("[%.1fs] 🎤 语音开始\n", 
-                                (currentTime - startTime) / 1000.0);
-                        } else if (!isVoiceActive && wasVoiceActive) {
-                            // 语音结束
-                            long voiceDuration = currentTime - voiceStartTime;
-                            System.out.printf("[%.1fs] 🔇 语音结束 (持续时间: %dms)\n", 
-                                (currentTime - startTime) / 1000.0, voiceDuration);
-                        }
-                        
-                        wasVoiceActive = isVoiceActive;
-                        
-                        // 每10帧输出一次状态
-                        if (frameCount % 10 == 0) {
-                            double elapsedSeconds = (currentTime - startTime) / 1000.0;
-                            String status = isVoiceActive ? "🎤 语音" : "🔇 静音";
-                            
-                            System.out.printf("[%.1fs] %s - 帧#%d, 队列:%d\n",
-                                elapsedSeconds, status, frameCount, audioCapture.getQueueSize());
-                        }
+                        timeline.add(score, hopSize);
+                        segmentPublisher.accept(score, hopSize);
+                        stageStart = System.nanoTime();
+                        metrics.record(LatencyStage.SEGMENT_DECISION, stageStart - inferenceDone);
+                        metrics.record(LatencyStage.END_TO_END, stageStart - captureNanos);
+                    }
+                    
+                    // 每10帧输出一次状态
+                    if (frameCount % 10 == 0) {
+                        double elapsedSeconds = (System.currentTimeMillis() - startTime) / 1000.0;
+                        String status = segmentPublisher.isSpeech() ? "🎤 语音" : "🔇 静音";
                         
-                        // 移除已处理的数据，保留一些重叠
-                        int removeCount = AUDIO_BUFFER_SIZE / 2;
-                        audioBuffer.subList(0, removeCount).clear();
+                        System.out.printf("[%.1fs] %s - 帧#%d, 队列:%d, 丢帧:%d, 延迟:%dms, 端到端p99:%.1fms\n",
+                            elapsedSeconds, status, frameCount, audioCapture.getQueueSize(),
+                            audioCapture.getDroppedFrames(), audioCapture.getConsumerLagMillis(),
+                            metrics.getPercentileMillis(LatencyStage.END_TO_END, 99));
                     }
                 }
                 
@@ -163,15 +188,17 @@ public class RealTimeVADDemo {
                 System.err.println("VAD处理错误: " + e.getMessage());
             }
         }
+        segmentPublisher.close();
         
         // 输出最终统计
         System.out.println("\n=== VAD处理统计 ===");
         System.out.println("总处理帧数: " + frameCount);
-        System.out.println("VAD检测次数: " + vadResults.size());
+        System.out.println("VAD检测次数: " + timeline.size());
+        System.out.println("丢弃的片段数据块: " + segmentPublisher.getDroppedChunks());
         
         // 提取语音片段
-        if (!vadResults.isEmpty()) {
-            List<VoiceSegment> voiceSegments = extractor.extractVoiceSegments(vadResults, 0.5f);
+        if (timeline.size() > 0) {
+            List<VoiceSegment> voiceSegments = extractor.extractVoiceSegments(timeline, 0.5f);
             System.out.println("检测到语音片段数: " + voiceSegments.size());
             
             for (int i = 0; i < voiceSegments.size(); i++) {
@@ -181,4 +208,48 @@ public class RealTimeVADDemo {
             }
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * 演示用的片段订阅者，模拟下游ASR接收片段音频并统计每个片段收到的时长
+     */
+    private static class SegmentAudioSubscriber implements Flow.Subscriber<SpeechChunk> {
+        private Flow.Subscription subscription;
+        private long receivedSamples;
+        
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+        
+        @Override
+        public void onNext(SpeechChunk chunk) {
+            switch (chunk.getType()) {
+                case START:
+                    receivedSamples = 0;
+                    break;
+                case AUDIO:
+                    receivedSamples += chunk.getSamples().length;
+                    break;
+                case END:
+                    System.out.printf("片段#%d 音频已发布: %dms%s\n",
+                        chunk.getSegmentId() + 1, receivedSamples * 1000 / SAMPLE_RATE,
+                        chunk.isComplete() ? "" : " (丢弃 " + chunk.getDroppedChunks() + " 个数据块，音频有缺口)");
+                    break;
+                default:
+                    break;
+            }
+            // 处理完一个再请求下一个，由 SubmissionPublisher 负责背压
+            subscription.request(1);
+        }
+        
+        @Override
+        public void onError(Throwable throwable) {
+            System.err.println("片段订阅者错误: " + throwable.getMessage());
+        }
+        
+        @Override
+        public void onComplete() {
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.yren.study.vadDemo.result;
+
+/**
+ * 流式发布的语音片段数据块
+ * 每个片段依次发布一个 START、若干个 AUDIO、一个 END；样本位置均为音频流中的绝对位置。
+ * START 与 END 不会被丢弃；AUDIO 可能因订阅者处理不及被丢弃，END 的 droppedChunks 大于0时片段音频有缺口
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class SpeechChunk {
+
+    public enum Type {
+        /** 片段开始，position 为片段起点（含前置填充） */
+        START,
+        /** 片段音频，position 为 samples[0] 的位置 */
+        AUDIO,
+        /** 片段结束，position 为片段终点（不含） */
+        END
+    }
+
+    private final Type type;
+    private final long segmentId;
+    private final long position;
+    private final float[] samples;
+    private final int droppedChunks;
+
+    public SpeechChunk(Type type, long segmentId, long position, float[] samples) {
+        this(type, segmentId, position, samples, 0);
+    }
+
+    /**
+     * @param droppedChunks 片段内被丢弃的 AUDIO 数据块数，仅 END 类型使用
+     */
+    public SpeechChunk(Type type, long segmentId, long position, float[] samples, int droppedChunks) {
+        this.type = type;
+        this.segmentId = segmentId;
+        this.position = position;
+        this.samples = samples;
+        this.droppedChunks = droppedChunks;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getSegmentId() {
+        return segmentId;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * @return 音频样本，仅 AUDIO 类型非null，订阅者独占，可直接持有
+     */
+    public float[] getSamples() {
+        return samples;
+    }
+
+    /**
+     * @return 片段内因订阅者处理不及而丢弃的 AUDIO 数据块数，仅 END 类型有效，大于0表示片段音频有缺口
+     */
+    public int getDroppedChunks() {
+        return droppedChunks;
+    }
+
+    /**
+     * @return 片段音频是否完整，仅 END 类型有效
+     */
+    public boolean isComplete() {
+        return droppedChunks == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "SpeechChunk{" + type + ", segment=" + segmentId + ", position=" + position
+                + (samples != null ? ", samples=" + samples.length : "")
+                + (droppedChunks > 0 ? ", dropped=" + droppedChunks : "") + "}";
+    }
+}
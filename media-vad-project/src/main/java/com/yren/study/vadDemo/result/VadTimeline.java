@@ -0,0 +1,177 @@
+package com.yren.study.vadDemo.result;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 列式存储的VAD结果时间线
+ * 窗口按顺序连续排列，窗口下标即数组下标；概率值保存在float数组中，判定结果保存在BitSet中，
+ * 时间戳由窗口下标、窗口大小和采样率推导，不再为每个窗口创建 {@link VadResult} 对象
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class VadTimeline implements Iterable<VadResult> {
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final int windowSize;
+    private final int sampleRate;
+    private final float threshold;
+
+    private float[] scores;
+    private final BitSet voice = new BitSet();
+    private int size = 0;
+    private long totalSamples = 0;
+
+    public VadTimeline(int windowSize, int sampleRate, float threshold) {
+        this(windowSize, sampleRate, threshold, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param windowSize 每个窗口的样本数
+     * @param sampleRate 采样率
+     * @param threshold 语音判定阈值，概率大于阈值视为语音
+     * @param expectedWindows 预计窗口数，用于预分配
+     */
+    public VadTimeline(int windowSize, int sampleRate, float threshold, int expectedWindows) {
+        this.windowSize = windowSize;
+        this.sampleRate = sampleRate;
+        this.threshold = threshold;
+        this.scores = new float[Math.max(1, expectedWindows)];
+    }
+
+    /**
+     * 追加一个窗口的结果
+     *
+     * @param score VAD概率值
+     * @param validSamples 窗口中的有效样本数，只有最后一个窗口可以小于窗口大小
+     */
+    public void add(float score, int validSamples) {
+        if (size == scores.length) {
+            scores = Arrays.copyOf(scores, scores.length + (scores.length >> 1) + 1);
+        }
+        scores[size] = score;
+        if (score > threshold) {
+            voice.set(size);
+        }
+        size++;
+        totalSamples += validSamples;
+    }
+
+    /**
+     * 按顺序追加另一段时间线，用于拼接分片结果
+     */
+    public void append(VadTimeline other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.scores[i], (int) (other.getEndSample(i) - other.getStartSample(i)));
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public float getScore(int index) {
+        return scores[checkIndex(index)];
+    }
+
+    public boolean isVoice(int index) {
+        return voice.get(checkIndex(index));
+    }
+
+    public long getStartSample(int index) {
+        return (long) checkIndex(index) * windowSize;
+    }
+
+    public long getEndSample(int index) {
+        return Math.min(getStartSample(index) + windowSize, totalSamples);
+    }
+
+    public float getStartTime(int index) {
+        return getStartSample(index) / (float) sampleRate;
+    }
+
+    public float getEndTime(int index) {
+        return getEndSample(index) / (float) sampleRate;
+    }
+
+    /**
+     * @return 判定为语音的窗口数
+     */
+    public int getVoiceWindowCount() {
+        return voice.cardinality();
+    }
+
+    /**
+     * @return 下一个语音窗口的下标，没有时返回-1
+     */
+    public int nextVoiceWindow(int fromIndex) {
+        int next = voice.nextSetBit(fromIndex);
+        return next >= size ? -1 : next;
+    }
+
+    /**
+     * @return 下一个非语音窗口的下标，没有时返回 size()
+     */
+    public int nextSilenceWindow(int fromIndex) {
+        return Math.min(voice.nextClearBit(fromIndex), size);
+    }
+
+    public long getTotalSamples() {
+        return totalSamples;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public float getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * 按需创建单个窗口的结果对象
+     */
+    public VadResult get(int index) {
+        return new VadResult(getStartTime(index), getEndTime(index), scores[index], voice.get(index));
+    }
+
+    /**
+     * @return 只读的列表视图，元素在访问时按需创建
+     */
+    public List<VadResult> asList() {
+        return new ResultListView();
+    }
+
+    @Override
+    public Iterator<VadResult> iterator() {
+        return asList().iterator();
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return index;
+    }
+
+    private class ResultListView extends AbstractList<VadResult> implements RandomAccess {
+        @Override
+        public VadResult get(int index) {
+            return VadTimeline.this.get(checkIndex(index));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
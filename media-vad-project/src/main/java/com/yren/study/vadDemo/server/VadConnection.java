@@ -0,0 +1,357 @@
+package com.yren.study.vadDemo.server;
+
+import com.yren.study.vadDemo.audio.FloatRingBuffer;
+import com.yren.study.vadDemo.audio.PcmConverter;
+import com.yren.study.vadDemo.vad.SegmentListener;
+import com.yren.study.vadDemo.vad.SileroModel;
+import com.yren.study.vadDemo.vad.StreamingSegmentDetector;
+import com.yren.study.vadDemo.vad.VadStream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * VAD服务的单个连接
+ * 选择器线程负责读帧、把PCM转换后追加到待处理缓冲区；推理由工作线程串行执行，
+ * 同一连接同一时刻最多只有一个工作线程在处理。待处理缓冲区写满时暂停读取，依靠TCP背压限制客户端
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+class VadConnection {
+    private final VadServer server;
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final VadStream stream;
+    private final StreamingSegmentDetector detector;
+    private final int windowSize;
+
+    // 选择器线程使用
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(VadFrameProtocol.HEADER_BYTES
+            + VadFrameProtocol.MAX_PAYLOAD_BYTES);
+    private final float[] frameSamples = new float[VadFrameProtocol.MAX_PAYLOAD_BYTES / 2];
+    private ByteBuffer currentWrite;
+
+    // 选择器线程写入、工作线程读取，访问时需持有 pending 的锁
+    private final FloatRingBuffer pending;
+    // 各条音频流结束时的样本位置，同一连接上可以连续发送多条音频流
+    private final ArrayDeque<Long> streamEnds = new ArrayDeque<>();
+
+    // 工作线程使用
+    private final float[] window;
+    private long streamSamples = 0;
+
+    private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile boolean closed = false;
+    private volatile boolean readPaused = false;
+    // 已提交恢复读取的任务，避免工作线程重复提交
+    private final AtomicBoolean resumeRequested = new AtomicBoolean();
+    // 错误帧发送完后关闭连接，选择器线程使用
+    private boolean closeAfterFlush = false;
+    // 工作线程使用，保证 VadStream 只关闭一次
+    private boolean streamClosed = false;
+
+    VadConnection(VadServer server, SocketChannel channel, SelectionKey key, SileroModel model,
+                  int pendingCapacity) throws Exception {
+        this.server = server;
+        this.channel = channel;
+        this.key = key;
+        this.stream = model.newStream();
+        this.windowSize = model.getWindowSizeSamples();
+        this.window = new float[windowSize];
+        // 缓冲区至少要能在残留不足一个窗口的样本之外再放下一个最大的音频帧，否则暂停读取后无法恢复
+        this.pending = new FloatRingBuffer(Math.max(pendingCapacity,
+                VadFrameProtocol.MAX_PAYLOAD_BYTES / 2 + windowSize));
+        this.detector = new StreamingSegmentDetector(model.getSampleRate(), new SegmentListener() {
+            @Override
+            public void onSegmentStart(long startSample) {
+                send(VadFrameProtocol.segmentStart(startSample));
+            }
+
+            @Override
+            public void onSegmentEnd(long startSample, long endSample) {
+                send(VadFrameProtocol.segmentEnd(startSample, endSample));
+            }
+        });
+        readBuffer.order(ByteOrder.BIG_ENDIAN);
+    }
+
+    // ======================== 选择器线程 ========================
+
+    /**
+     * 读取并解析所有完整的帧
+     * @return false 表示对端已关闭
+     */
+    boolean onReadable() throws IOException {
+        int read = channel.read(readBuffer);
+        if (read < 0) {
+            return false;
+        }
+        readBuffer.flip();
+        try {
+            while (readBuffer.remaining() >= VadFrameProtocol.HEADER_BYTES) {
+                int payload = readBuffer.getInt(readBuffer.position());
+                byte type = readBuffer.get(readBuffer.position() + 4);
+                if (payload < 0 || payload > VadFrameProtocol.MAX_PAYLOAD_BYTES) {
+                    rejectFrame("非法帧长度: " + payload);
+                    return true;
+                }
+                if (type == VadFrameProtocol.AUDIO && (payload & 1) != 0) {
+                    rejectFrame("音频帧长度必须为偶数: " + payload);
+                    return true;
+                }
+                if (readBuffer.remaining() < VadFrameProtocol.HEADER_BYTES + payload) {
+                    break;
+                }
+                if (type == VadFrameProtocol.AUDIO && !appendAudio(payload)) {
+                    // 待处理缓冲区已满，帧留在读缓冲区中，等工作线程消化后再继续
+                    pauseRead();
+                    break;
+                }
+                if (type == VadFrameProtocol.END) {
+                    synchronized (pending) {
+                        streamEnds.add(pending.getWritePosition());
+                    }
+                } else if (type != VadFrameProtocol.AUDIO) {
+                    rejectFrame("未知帧类型: " + type);
+                    return true;
+                }
+                readBuffer.position(readBuffer.position() + VadFrameProtocol.HEADER_BYTES + payload);
+            }
+        } finally {
+            readBuffer.compact();
+        }
+        schedule();
+        return true;
+    }
+
+    private boolean appendAudio(int payloadBytes) {
+        int samples = payloadBytes / 2;
+        synchronized (pending) {
+            if (pending.capacity() - pending.available() < samples) {
+                return false;
+            }
+            PcmConverter.pcm16ToFloat(readBuffer.array(),
+                    readBuffer.arrayOffset() + readBuffer.position() + VadFrameProtocol.HEADER_BYTES,
+                    payloadBytes, frameSamples, 0);
+            pending.write(frameSamples, 0, samples);
+        }
+        server.recordReceivedSamples(samples);
+        return true;
+    }
+
+    /**
+     * 客户端违反协议：丢弃已读取的数据，回复错误帧后关闭连接
+     */
+    private void rejectFrame(String message) {
+        readBuffer.position(readBuffer.limit());
+        readPaused = false;
+        send(VadFrameProtocol.error(message));
+        closeAfterFlush();
+    }
+
+    private void pauseRead() {
+        readPaused = true;
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+    }
+
+    /**
+     * 工作线程腾出空间后恢复读取，并处理读缓冲区中滞留的帧
+     */
+    void resumeRead() throws IOException {
+        resumeRequested.set(false);
+        if (readPaused && key.isValid()) {
+            readPaused = false;
+            key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+            if (!onReadable()) {
+                server.closeConnection(this);
+            }
+        }
+    }
+
+    /**
+     * 写出待发送的事件帧，全部写完后取消写关注
+     */
+    void onWritable() throws IOException {
+        while (true) {
+            if (currentWrite == null) {
+                currentWrite = outbound.poll();
+                if (currentWrite == null) {
+                    if (closeAfterFlush) {
+                        server.closeConnection(this);
+                        return;
+                    }
+                    key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+                    // 取消关注与新事件入队之间可能有竞争，再检查一次
+                    if (!outbound.isEmpty()) {
+                        key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    }
+                    return;
+                }
+            }
+            channel.write(currentWrite);
+            if (currentWrite.hasRemaining()) {
+                return;
+            }
+            currentWrite = null;
+        }
+    }
+
+    // ======================== 工作线程 ========================
+
+    void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            server.execute(this::drain);
+        }
+    }
+
+    /**
+     * 处理所有已凑满的窗口和已到达的流结束标记
+     */
+    private void drain() {
+        try {
+            while (!closed) {
+                int length;
+                boolean endOfStream;
+                synchronized (pending) {
+                    // 窗口不能跨越音频流的结束位置
+                    Long end = streamEnds.peek();
+                    long limit = end != null ? end : pending.getWritePosition();
+                    int available = (int) (limit - pending.getReadPosition());
+                    endOfStream = available < windowSize;
+                    if (!endOfStream) {
+                        length = windowSize;
+                    } else if (end != null) {
+                        length = available;
+                        streamEnds.poll();
+                    } else {
+                        break;
+                    }
+                    pending.read(window, 0, length);
+                }
+                if (endOfStream) {
+                    finishStream(length);
+                } else {
+                    process(length);
+                }
+            }
+            if (closed) {
+                closeStream();
+                return;
+            }
+            // 选择器线程可能在本次处理期间才暂停读取，只要仍处于暂停状态就请求恢复；
+            // 处理后剩余样本不足一个窗口，缓冲区一定能放下滞留的帧
+            requestResume();
+        } catch (Exception e) {
+            send(VadFrameProtocol.error(e.getMessage()));
+            server.runOnSelector(this, this::closeAfterFlush);
+            closed = true;
+            closeStream();
+        } finally {
+            scheduled.set(false);
+        }
+        if (hasWork()) {
+            schedule();
+        }
+    }
+
+    private void requestResume() {
+        if (readPaused && resumeRequested.compareAndSet(false, true)) {
+            server.runOnSelector(this, this::resumeRead);
+        }
+    }
+
+    private boolean hasWork() {
+        if (closed) {
+            return !streamClosed;
+        }
+        if (readPaused && !resumeRequested.get()) {
+            return true;
+        }
+        synchronized (pending) {
+            return pending.available() >= windowSize || !streamEnds.isEmpty();
+        }
+    }
+
+    private void closeStream() {
+        if (!streamClosed) {
+            streamClosed = true;
+            try {
+                stream.close();
+            } catch (Exception e) {
+                System.err.println("关闭VAD音频流失败: " + e.getMessage());
+            }
+        }
+    }
+
+    private void process(int length) throws Exception {
+        float score = stream.process(window, 0);
+        streamSamples += length;
+        detector.accept(score, length);
+        server.recordWindow();
+    }
+
+    private void finishStream(int remaining) throws Exception {
+        if (remaining > 0) {
+            Arrays.fill(window, remaining, windowSize, 0f);
+            process(remaining);
+        }
+        detector.flush();
+        send(VadFrameProtocol.streamEnd(streamSamples));
+
+        // 重置状态，连接可以继续发送下一条音频流
+        detector.reset();
+        stream.reset();
+        streamSamples = 0;
+    }
+
+    private void send(ByteBuffer frame) {
+        outbound.add(frame);
+        server.runOnSelector(this, () -> {
+            if (key.isValid()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+            }
+        });
+    }
+
+    // ======================== 生命周期 ========================
+
+    /**
+     * 发送完已排队的帧（含错误帧）后关闭连接
+     */
+    private void closeAfterFlush() {
+        closeAfterFlush = true;
+        if (key.isValid()) {
+            key.interestOps(SelectionKey.OP_WRITE);
+        }
+    }
+
+    /**
+     * 关闭连接，VadStream 由工作线程在当前处理结束后关闭
+     */
+    void close() {
+        if (!key.isValid() && !channel.isOpen()) {
+            return;
+        }
+        closed = true;
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+        schedule();
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+}
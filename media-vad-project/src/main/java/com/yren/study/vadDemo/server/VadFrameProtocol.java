@@ -0,0 +1,61 @@
+package com.yren.study.vadDemo.server;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * VAD服务的二进制帧协议
+ * <pre>
+ * 帧格式（大端序）: int 负载长度 | byte 类型 | 负载
+ *
+ * 客户端 → 服务端
+ *   AUDIO(1)         服务端模型采样率（默认16kHz，8kHz模式为8kHz）的单声道 PCM16 样本（小端序），长度需为偶数
+ *   END(2)           无负载，当前音频流结束；服务端结束未关闭的片段后回复 STREAM_END，连接可继续发送新的音频流
+ * 服务端 → 客户端
+ *   SEGMENT_START(3) long 片段起始样本
+ *   SEGMENT_END(4)   long 片段起始样本, long 片段结束样本
+ *   STREAM_END(5)    long 本条音频流处理的样本数
+ *   ERROR(6)         UTF-8 错误信息，发送后服务端关闭连接
+ * </pre>
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public final class VadFrameProtocol {
+    public static final byte AUDIO = 1;
+    public static final byte END = 2;
+    public static final byte SEGMENT_START = 3;
+    public static final byte SEGMENT_END = 4;
+    public static final byte STREAM_END = 5;
+    public static final byte ERROR = 6;
+
+    public static final int HEADER_BYTES = 5;
+    public static final int MAX_PAYLOAD_BYTES = 64 * 1024;
+
+    private VadFrameProtocol() {
+    }
+
+    public static ByteBuffer segmentStart(long startSample) {
+        return frame(SEGMENT_START, 8).putLong(startSample).flip();
+    }
+
+    public static ByteBuffer segmentEnd(long startSample, long endSample) {
+        return frame(SEGMENT_END, 16).putLong(startSample).putLong(endSample).flip();
+    }
+
+    public static ByteBuffer streamEnd(long processedSamples) {
+        return frame(STREAM_END, 8).putLong(processedSamples).flip();
+    }
+
+    public static ByteBuffer error(String message) {
+        byte[] bytes = String.valueOf(message).getBytes(StandardCharsets.UTF_8);
+        return frame(ERROR, bytes.length).put(bytes).flip();
+    }
+
+    /**
+     * 写入帧头，返回的缓冲区位置在负载起点
+     */
+    public static ByteBuffer frame(byte type, int payloadBytes) {
+        return ByteBuffer.allocate(HEADER_BYTES + payloadBytes).putInt(payloadBytes).put(type);
+    }
+}
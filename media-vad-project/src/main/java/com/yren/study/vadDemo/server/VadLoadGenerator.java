@@ -0,0 +1,172 @@
+package com.yren.study.vadDemo.server;
+
+import com.yren.study.vadDemo.audio.AudioPreprocessor;
+import com.yren.study.vadDemo.audio.PcmConverter;
+import com.yren.study.vadDemo.vad.VadSampleRate;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * VAD服务压测工具
+ * 把同一段音频通过N个连接同时发送给 {@link VadServer}，统计片段事件、处理吞吐和流结束延迟。
+ * 实时模式按音频时长匀速发送，用于验证服务能否稳定承载N路实时流；
+ * 非实时模式尽快发送，用于测量服务的最大吞吐，并按服务端推理线程数换算为每个CPU核能承载的实时流数
+ * 用法: VadLoadGenerator [连接数] [host:port] [音频路径] [realtime|flood] [服务端推理线程数]
+ * 服务端推理线程数默认取本机CPU核数，与 VadServerMain 的默认值一致（服务端与压测工具在同一台机器时成立）
+ * 采样率需与服务端一致，同样通过 -Dvad.sampleRate 指定
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class VadLoadGenerator {
+    private static final String AUDIO_PATH = "src/main/resources/audio/元数据.wav";
+    // 每帧20ms音频
+    private static final int FRAME_MILLIS = 20;
+
+    private static final LongAdder segments = new LongAdder();
+    private static final LongAdder processedSamples = new LongAdder();
+    private static final AtomicLong maxEndLatencyNanos = new AtomicLong();
+    private static final LongAdder failures = new LongAdder();
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        String[] hostPort = (args.length > 1 ? args[1] : "localhost:9090").split(":");
+        String audioPath = args.length > 2 ? args[2] : AUDIO_PATH;
+        boolean realtime = args.length <= 3 || !"flood".equalsIgnoreCase(args[3]);
+        int serverThreads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        InetSocketAddress address = new InetSocketAddress(hostPort[0], Integer.parseInt(hostPort[1]));
+        int sampleRate = VadSampleRate.of(Integer.getInteger("vad.sampleRate", 16000)).getHertz();
+        int frameSamples = sampleRate * FRAME_MILLIS / 1000;
+
+        // 音频只转换一次，所有连接共享同一份PCM数据
+        float[] audio = new AudioPreprocessor(sampleRate).loadAndPreprocessWav(audioPath);
+        ByteBuffer pcm = ByteBuffer.allocate(audio.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+        // 与采集、解码、写入使用同一套量化规则
+        PcmConverter.floatToPcm16(audio, 0, audio.length, pcm.asShortBuffer());
+        byte[] pcmBytes = pcm.array();
+        double audioSeconds = audio.length / (double) sampleRate;
+
+        System.out.println("=== VAD服务压测 ===");
+        System.out.printf("连接数: %d, 目标: %s, 音频: %.1fs (%dHz), 模式: %s%n",
+                connections, address, audioSeconds, sampleRate, realtime ? "实时" : "尽快发送");
+
+        CountDownLatch done = new CountDownLatch(connections);
+        List<Thread> clients = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            Thread client = new Thread(() -> {
+                try {
+                    runClient(address, pcmBytes, sampleRate, frameSamples, realtime);
+                } catch (Exception e) {
+                    failures.increment();
+                    System.err.println("连接失败: " + e.getMessage());
+                } finally {
+                    done.countDown();
+                }
+            }, "vad-load-" + i);
+            client.setDaemon(true);
+            clients.add(client);
+            client.start();
+        }
+        done.await();
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        double processedAudioSeconds = processedSamples.sum() / (double) sampleRate;
+        double throughput = processedAudioSeconds / elapsedSeconds;
+        System.out.printf("耗时: %.1fs, 失败连接: %d, 片段事件: %d%n", elapsedSeconds, failures.sum(), segments.sum());
+        System.out.printf("处理音频: %.1fs, 吞吐: %.1f audio-s/s (相当于 %.0f 路实时流)%n",
+                processedAudioSeconds, throughput, throughput);
+        System.out.printf("流结束延迟(最大): %.1fms%n", maxEndLatencyNanos.get() / 1e6);
+        if (realtime) {
+            System.out.println("实时模式下吞吐受发送速度限制，每核最大实时流数请用 flood 模式测量");
+        } else {
+            System.out.printf("每核最大实时流数: %.1f (吞吐 / 服务端推理线程数 %d)%n",
+                    throughput / serverThreads, serverThreads);
+        }
+    }
+
+    /**
+     * 单个连接：发送线程按帧发送音频，接收线程读取事件直到收到 STREAM_END
+     */
+    private static void runClient(InetSocketAddress address, byte[] pcmBytes, int sampleRate, int frameSamples,
+                                  boolean realtime) throws Exception {
+        try (SocketChannel channel = SocketChannel.open(address)) {
+            channel.socket().setTcpNoDelay(true);
+            long[] endSentNanos = new long[1];
+            Thread receiver = new Thread(() -> receive(channel, endSentNanos), Thread.currentThread().getName() + "-rx");
+            receiver.setDaemon(true);
+            receiver.start();
+
+            ByteBuffer frame = ByteBuffer.allocate(VadFrameProtocol.HEADER_BYTES + frameSamples * 2);
+            long frameNanos = frameSamples * 1_000_000_000L / sampleRate;
+            long start = System.nanoTime();
+            int frames = 0;
+            for (int offset = 0; offset < pcmBytes.length; offset += frameSamples * 2) {
+                int length = Math.min(frameSamples * 2, pcmBytes.length - offset);
+                frame.clear();
+                frame.putInt(length).put(VadFrameProtocol.AUDIO).put(pcmBytes, offset, length).flip();
+                writeFully(channel, frame);
+                frames++;
+                if (realtime) {
+                    long wait = start + frames * frameNanos - System.nanoTime();
+                    if (wait > 0) {
+                        Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                    }
+                }
+            }
+            frame.clear();
+            frame.putInt(0).put(VadFrameProtocol.END).flip();
+            synchronized (endSentNanos) {
+                endSentNanos[0] = System.nanoTime();
+            }
+            writeFully(channel, frame);
+            receiver.join();
+        }
+    }
+
+    private static void receive(SocketChannel channel, long[] endSentNanos) {
+        try {
+            DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+            while (true) {
+                int length = in.readInt();
+                byte type = in.readByte();
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                ByteBuffer buffer = ByteBuffer.wrap(payload);
+                if (type == VadFrameProtocol.SEGMENT_END) {
+                    segments.increment();
+                } else if (type == VadFrameProtocol.STREAM_END) {
+                    processedSamples.add(buffer.getLong());
+                    long latency;
+                    synchronized (endSentNanos) {
+                        latency = System.nanoTime() - endSentNanos[0];
+                    }
+                    maxEndLatencyNanos.accumulateAndGet(latency, Math::max);
+                    return;
+                } else if (type == VadFrameProtocol.ERROR) {
+                    throw new IOException("服务端错误: " + new String(payload, java.nio.charset.StandardCharsets.UTF_8));
+                }
+            }
+        } catch (IOException e) {
+            failures.increment();
+            System.err.println("接收失败: " + e.getMessage());
+        }
+    }
+
+    private static void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.yren.study.vadDemo.server;
+
+import com.yren.study.vadDemo.vad.SileroModel;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基于NIO的流式VAD服务
+ * 单个选择器线程负责所有连接的接入与读写，推理在固定大小的工作线程池中执行；
+ * 所有连接共享同一个 {@link SileroModel}，每个连接持有自己的 VadStream 与分段状态，
+ * 帧格式见 {@link VadFrameProtocol}
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class VadServer implements AutoCloseable {
+    // 每个连接待处理音频的默认上限（秒），样本数按模型采样率换算
+    private static final int DEFAULT_PENDING_SECONDS = 1;
+
+    private final SileroModel model;
+    private final InetSocketAddress address;
+    private final ExecutorService workers;
+    private final int pendingSamples;
+    private final Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final LongAdder totalConnections = new LongAdder();
+    private final LongAdder processedWindows = new LongAdder();
+    private final LongAdder receivedSamples = new LongAdder();
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread selectorThread;
+    private volatile boolean running;
+
+    interface SelectorTask {
+        void run() throws IOException;
+    }
+
+    /**
+     * @param model 共享的VAD模型
+     * @param address 监听地址
+     * @param workerThreads 推理线程数
+     */
+    public VadServer(SileroModel model, InetSocketAddress address, int workerThreads) {
+        this(model, address, workerThreads, model.getSampleRate() * DEFAULT_PENDING_SECONDS);
+    }
+
+    /**
+     * @param pendingSamples 每个连接待处理音频的上限，超过后暂停读取该连接
+     */
+    public VadServer(SileroModel model, InetSocketAddress address, int workerThreads, int pendingSamples) {
+        this.model = model;
+        this.address = address;
+        this.pendingSamples = pendingSamples;
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "vad-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+
+        selectorThread = new Thread(this::selectLoop, "vad-selector");
+        selectorThread.start();
+        System.out.println("VAD服务已启动: " + serverChannel.getLocalAddress());
+    }
+
+    private void selectLoop() {
+        while (running) {
+            try {
+                selector.select();
+                runSelectorTasks();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        handle(key);
+                    }
+                }
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("VAD服务选择器异常: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        try {
+            key.attach(new VadConnection(this, channel, key, model, pendingSamples));
+            activeConnections.incrementAndGet();
+            totalConnections.increment();
+        } catch (Exception e) {
+            System.err.println("创建连接状态失败: " + e.getMessage());
+            key.cancel();
+            channel.close();
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        VadConnection connection = (VadConnection) key.attachment();
+        try {
+            if (key.isReadable() && !connection.onReadable()) {
+                closeConnection(connection);
+                return;
+            }
+            if (key.isValid() && key.isWritable()) {
+                connection.onWritable();
+            }
+        } catch (IOException e) {
+            closeConnection(connection);
+        }
+    }
+
+    private void runSelectorTasks() {
+        Runnable task;
+        while ((task = selectorTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    // ======================== 供连接调用 ========================
+
+    void execute(Runnable task) {
+        workers.execute(task);
+    }
+
+    /**
+     * 在选择器线程中执行任务，连接已关闭时忽略
+     */
+    void runOnSelector(VadConnection connection, SelectorTask task) {
+        selectorTasks.add(() -> {
+            if (!connection.getChannel().isOpen()) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (IOException e) {
+                closeConnection(connection);
+            }
+        });
+        selector.wakeup();
+    }
+
+    void closeConnection(VadConnection connection) {
+        if (connection.getChannel().isOpen()) {
+            activeConnections.decrementAndGet();
+        }
+        connection.close();
+    }
+
+    void recordWindow() {
+        processedWindows.increment();
+    }
+
+    void recordReceivedSamples(int samples) {
+        receivedSamples.add(samples);
+    }
+
+    // ======================== 统计 ========================
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    public long getTotalConnections() {
+        return totalConnections.sum();
+    }
+
+    public long getProcessedWindows() {
+        return processedWindows.sum();
+    }
+
+    public long getReceivedSamples() {
+        return receivedSamples.sum();
+    }
+
+    /**
+     * 停止服务并关闭所有连接
+     * 等待选择器线程与工作线程退出时被中断不会中止关闭流程，资源照常释放后恢复线程的中断状态
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        boolean interrupted = false;
+        selector.wakeup();
+        try {
+            selectorThread.join(1000);
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof VadConnection) {
+                closeConnection((VadConnection) key.attachment());
+            }
+        }
+        serverChannel.close();
+        selector.close();
+        workers.shutdown();
+        try {
+            if (interrupted || !workers.awaitTermination(5, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            interrupted = true;
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
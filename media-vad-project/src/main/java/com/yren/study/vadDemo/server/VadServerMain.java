@@ -0,0 +1,58 @@
+package com.yren.study.vadDemo.server;
+
+import com.yren.study.vadDemo.vad.SessionProfile;
+import com.yren.study.vadDemo.vad.SileroModel;
+import com.yren.study.vadDemo.vad.VadSampleRate;
+
+import java.net.InetSocketAddress;
+
+/**
+ * VAD服务入口
+ * 用法: VadServerMain [端口] [模型路径] [推理线程数]
+ * -Dvad.sampleRate=8000 时以8kHz模式接收电话音频
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class VadServerMain {
+    private static final String VAD_MODEL_PATH = "src/main/resources/model/silero_vad.onnx";
+    private static final int DEFAULT_PORT = 9090;
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String modelPath = args.length > 1 ? args[1] : VAD_MODEL_PATH;
+        int workers = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        // 大量连接并发推理，每次推理单线程执行，由工作线程池提供并行度
+        VadSampleRate sampleRate = VadSampleRate.of(Integer.getInteger("vad.sampleRate", 16000));
+        try (SileroModel model = SileroModel.load(modelPath, SessionProfile.SINGLE_STREAM_LOW_LATENCY, null, sampleRate)) {
+            VadServer server = new VadServer(model, new InetSocketAddress(port), workers);
+            server.start();
+            System.out.println("推理线程数: " + workers + "，按Enter键停止");
+
+            Thread reporter = new Thread(() -> {
+                long lastWindows = 0;
+                while (!Thread.currentThread().isInterrupted()) {
+                    try {
+                        Thread.sleep(5000);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    long windows = server.getProcessedWindows();
+                    double audioSecondsPerSecond = (windows - lastWindows) * model.getWindowSizeSamples()
+                            / (double) model.getSampleRate() / 5.0;
+                    lastWindows = windows;
+                    System.out.printf("连接: %d (累计 %d), 窗口: %d, 处理速度: %.1f audio-s/s%n",
+                            server.getActiveConnections(), server.getTotalConnections(), windows,
+                            audioSecondsPerSecond);
+                }
+            }, "vad-server-stats");
+            reporter.setDaemon(true);
+            reporter.start();
+
+            System.in.read();
+            reporter.interrupt();
+            server.close();
+        }
+    }
+}
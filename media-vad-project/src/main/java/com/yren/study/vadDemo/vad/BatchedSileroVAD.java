@@ -0,0 +1,370 @@
+package com.yren.study.vadDemo.vad;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import com.yren.study.vadDemo.result.VadResult;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 多路批量VAD推理引擎
+ * 将N路独立音频流的窗口打包为一次 [N,窗口样本数] 输入、[2,N,128] 状态的推理，
+ * 推理完成后把概率值和新状态分发回各路音频流
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class BatchedSileroVAD {
+    private static final int STATE_UNITS = SileroModel.STATE_UNITS;
+    private static final float DEFAULT_THRESHOLD = 0.3f;
+
+    private SileroModel model;
+    private boolean ownsModel;
+    private int maxBatchSize;
+    // 窗口样本数由模型的采样率模式决定（16kHz为512，8kHz为256）
+    private int windowSize;
+
+    // 按最大批大小预分配的堆外缓冲区，小批次使用其前缀
+    private FloatBuffer inputBuffer;
+    private FloatBuffer stateBuffer;
+    private FloatBuffer stateOutBuffer;
+    private FloatBuffer outputBuffer;
+    private OnnxTensor srTensor;
+    // 按批大小缓存的tensor，下标即批大小
+    private BatchTensors[] batchTensors;
+
+    // 各路音频流的状态，下标即流ID
+    private final List<StreamState> streams = new ArrayList<>();
+    private final Deque<Integer> freeStreamIds = new ArrayDeque<>();
+    // 每次批量推理递增的序号，用于检测同一批次内重复的流ID
+    private long batchSerial;
+
+    public void loadModel(String modelPath, int maxBatchSize) throws OrtException {
+        useModel(SileroModel.load(modelPath, SessionProfile.BATCH_THROUGHPUT), maxBatchSize);
+        ownsModel = true;
+    }
+
+    /**
+     * 使用一个已加载的共享模型，close 时不会关闭该模型
+     * @param sharedModel 共享模型
+     * @param maxBatchSize 单次推理的最大批大小
+     * @throws OrtException tensor创建异常
+     */
+    public void useModel(SileroModel sharedModel, int maxBatchSize) throws OrtException {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize必须大于0: " + maxBatchSize);
+        }
+        this.model = sharedModel;
+        this.ownsModel = false;
+        this.maxBatchSize = maxBatchSize;
+        this.windowSize = sharedModel.getWindowSizeSamples();
+
+        inputBuffer = allocateFloats(maxBatchSize * windowSize);
+        stateBuffer = allocateFloats(2 * maxBatchSize * STATE_UNITS);
+        stateOutBuffer = allocateFloats(2 * maxBatchSize * STATE_UNITS);
+        outputBuffer = allocateFloats(maxBatchSize);
+
+        LongBuffer srBuffer = ByteBuffer.allocateDirect(Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+        srBuffer.put(0, model.getSampleRate());
+        srTensor = OnnxTensor.createTensor(model.env(), srBuffer, new long[]{1, 1});
+
+        batchTensors = new BatchTensors[maxBatchSize + 1];
+    }
+
+    /**
+     * 打开一路新的音频流
+     * @return 流ID
+     */
+    public int openStream() {
+        Integer freeId = freeStreamIds.poll();
+        if (freeId != null) {
+            streams.get(freeId).reset();
+            streams.get(freeId).open = true;
+            return freeId;
+        }
+        StreamState stream = new StreamState();
+        stream.open = true;
+        streams.add(stream);
+        return streams.size() - 1;
+    }
+
+    /**
+     * 关闭音频流，流ID可被后续 openStream 复用
+     */
+    public void closeStream(int streamId) {
+        StreamState stream = stream(streamId);
+        stream.open = false;
+        freeStreamIds.push(streamId);
+    }
+
+    /**
+     * 重置音频流的状态和已处理样本数
+     */
+    public void resetStream(int streamId) {
+        stream(streamId).reset();
+    }
+
+    /**
+     * @return 该流已经处理的样本数，用于计算时间戳
+     */
+    public long getProcessedSamples(int streamId) {
+        return stream(streamId).processedSamples;
+    }
+
+    /**
+     * 对一批窗口执行一次推理，每个窗口属于不同的音频流
+     *
+     * @param streamIds 每个窗口所属的流ID，同一批次内不能重复
+     * @param windows 每个窗口的音频数据，从下标0开始，不足一个窗口时补零
+     * @param batchSize 本批次窗口数
+     * @param scoresOut 输出各窗口的VAD概率值
+     * @throws OrtException 推理异常
+     */
+    public void runBatch(int[] streamIds, float[][] windows, int batchSize, float[] scoresOut) throws OrtException {
+        runBatch(streamIds, windows, null, batchSize, scoresOut);
+    }
+
+    /**
+     * 对一批窗口执行一次推理，窗口从各自音频数据的 offsets[b] 处开始
+     *
+     * @param streamIds 每个窗口所属的流ID，同一批次内不能重复
+     * @param audio 每路音频数据
+     * @param offsets 每个窗口的起始位置，为null时均从0开始
+     * @param batchSize 本批次窗口数
+     * @param scoresOut 输出各窗口的VAD概率值
+     * @throws OrtException 推理异常
+     */
+    public void runBatch(int[] streamIds, float[][] audio, int[] offsets, int batchSize,
+                         float[] scoresOut) throws OrtException {
+        if (batchSize <= 0) {
+            return;
+        }
+        if (batchSize > maxBatchSize) {
+            throw new IllegalArgumentException("批大小超过上限: " + batchSize + " > " + maxBatchSize);
+        }
+        // 同一路流在一个批次中出现两次时，两个窗口都会从同一个旧状态推理，且后写回的状态覆盖先写回的
+        long serial = ++batchSerial;
+        for (int b = 0; b < batchSize; b++) {
+            StreamState stream = stream(streamIds[b]);
+            if (stream.lastBatch == serial) {
+                throw new IllegalArgumentException("批次内流ID重复: " + streamIds[b]);
+            }
+            stream.lastBatch = serial;
+        }
+
+        // 打包输入 [N,窗口样本数] 与状态 [2,N,128]
+        inputBuffer.clear();
+        for (int b = 0; b < batchSize; b++) {
+            int offset = offsets == null ? 0 : offsets[b];
+            int length = Math.max(0, Math.min(windowSize, audio[b].length - offset));
+            inputBuffer.put(audio[b], offset, length);
+            for (int i = length; i < windowSize; i++) {
+                inputBuffer.put(0f);
+            }
+            gatherState(streams.get(streamIds[b]).state, b, batchSize);
+        }
+
+        BatchTensors tensors = batchTensors(batchSize);
+        try (OrtSession.Result ignored = model.session().run(tensors.inputs, tensors.pinnedOutputs)) {
+            // 分发概率值与新状态
+            for (int b = 0; b < batchSize; b++) {
+                StreamState stream = streams.get(streamIds[b]);
+                scatterState(stream.state, b, batchSize);
+                int offset = offsets == null ? 0 : offsets[b];
+                stream.processedSamples += Math.max(0, Math.min(windowSize, audio[b].length - offset));
+                scoresOut[b] = outputBuffer.get(b);
+            }
+        }
+    }
+
+    /**
+     * 离线批量检测：多路完整音频按窗口对齐，每轮把仍有数据的各路窗口打包推理
+     *
+     * @param audioStreams 每路音频数据
+     * @return 每路音频的VAD结果
+     * @throws OrtException 推理异常
+     */
+    public List<List<VadResult>> detectVoiceActivity(List<float[]> audioStreams) throws OrtException {
+        int streamCount = audioStreams.size();
+        int[] streamIds = new int[streamCount];
+        List<List<VadResult>> results = new ArrayList<>(streamCount);
+        for (int s = 0; s < streamCount; s++) {
+            streamIds[s] = openStream();
+            results.add(new ArrayList<>());
+        }
+
+        int[] batchStreamIds = new int[maxBatchSize];
+        int[] batchSources = new int[maxBatchSize];
+        float[][] batchAudio = new float[maxBatchSize][];
+        int[] batchOffsets = new int[maxBatchSize];
+        float[] scores = new float[maxBatchSize];
+
+        try {
+            int maxLength = 0;
+            for (float[] audio : audioStreams) {
+                maxLength = Math.max(maxLength, audio.length);
+            }
+
+            for (int offset = 0; offset < maxLength; offset += windowSize) {
+                int batchSize = 0;
+                for (int s = 0; s < streamCount; s++) {
+                    float[] audio = audioStreams.get(s);
+                    if (offset >= audio.length) {
+                        continue;
+                    }
+                    batchStreamIds[batchSize] = streamIds[s];
+                    batchSources[batchSize] = s;
+                    batchAudio[batchSize] = audio;
+                    batchOffsets[batchSize] = offset;
+                    batchSize++;
+
+                    if (batchSize == maxBatchSize) {
+                        runAndCollect(batchStreamIds, batchSources, batchAudio, batchOffsets, batchSize, scores, results);
+                        batchSize = 0;
+                    }
+                }
+                runAndCollect(batchStreamIds, batchSources, batchAudio, batchOffsets, batchSize, scores, results);
+            }
+        } finally {
+            for (int streamId : streamIds) {
+                closeStream(streamId);
+            }
+        }
+        return results;
+    }
+
+    private void runAndCollect(int[] batchStreamIds, int[] batchSources, float[][] batchAudio, int[] batchOffsets,
+                               int batchSize, float[] scores, List<List<VadResult>> results) throws OrtException {
+        runBatch(batchStreamIds, batchAudio, batchOffsets, batchSize, scores);
+        for (int b = 0; b < batchSize; b++) {
+            int startIdx = batchOffsets[b];
+            int endIdx = Math.min(startIdx + windowSize, batchAudio[b].length);
+            float sampleRate = model.getSampleRate();
+            results.get(batchSources[b]).add(new VadResult(startIdx / sampleRate, endIdx / sampleRate,
+                    scores[b], scores[b] > DEFAULT_THRESHOLD));
+        }
+    }
+
+    /**
+     * 将单路状态 [2,128] 写入批量状态 [2,N,128] 的第 b 行
+     */
+    private void gatherState(float[] state, int b, int batchSize) {
+        for (int layer = 0; layer < 2; layer++) {
+            stateBuffer.position((layer * batchSize + b) * STATE_UNITS);
+            stateBuffer.put(state, layer * STATE_UNITS, STATE_UNITS);
+        }
+    }
+
+    /**
+     * 从批量新状态 [2,N,128] 的第 b 行读回单路状态
+     */
+    private void scatterState(float[] state, int b, int batchSize) {
+        for (int layer = 0; layer < 2; layer++) {
+            stateOutBuffer.position((layer * batchSize + b) * STATE_UNITS);
+            stateOutBuffer.get(state, layer * STATE_UNITS, STATE_UNITS);
+        }
+    }
+
+    private BatchTensors batchTensors(int batchSize) throws OrtException {
+        BatchTensors tensors = batchTensors[batchSize];
+        if (tensors == null) {
+            tensors = new BatchTensors(batchSize);
+            batchTensors[batchSize] = tensors;
+        }
+        return tensors;
+    }
+
+    private StreamState stream(int streamId) {
+        if (streamId < 0 || streamId >= streams.size() || !streams.get(streamId).open) {
+            throw new IllegalArgumentException("无效的流ID: " + streamId);
+        }
+        return streams.get(streamId);
+    }
+
+    private static FloatBuffer allocateFloats(int size) {
+        return ByteBuffer.allocateDirect(size * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    /**
+     * 取缓冲区前 length 个元素的视图，与原缓冲区共享堆外内存
+     */
+    private static FloatBuffer prefix(FloatBuffer buffer, int length) {
+        FloatBuffer view = buffer.duplicate();
+        view.clear();
+        view.limit(length);
+        return view.slice();
+    }
+
+    public void close() throws OrtException {
+        if (batchTensors != null) {
+            for (BatchTensors tensors : batchTensors) {
+                if (tensors != null) tensors.close();
+            }
+        }
+        if (srTensor != null) srTensor.close();
+        if (model != null && ownsModel) model.close();
+    }
+
+    /**
+     * 某一批大小对应的输入输出tensor
+     */
+    private class BatchTensors {
+        private final OnnxTensor inputTensor;
+        private final OnnxTensor stateTensor;
+        private final OnnxTensor outputTensor;
+        private final OnnxTensor stateOutTensor;
+        private final Map<String, OnnxTensor> inputs = new HashMap<>();
+        private final Map<String, OnnxTensor> pinnedOutputs = new HashMap<>();
+
+        BatchTensors(int batchSize) throws OrtException {
+            inputTensor = OnnxTensor.createTensor(model.env(), prefix(inputBuffer, batchSize * windowSize),
+                    new long[]{batchSize, windowSize});
+            stateTensor = OnnxTensor.createTensor(model.env(), prefix(stateBuffer, 2 * batchSize * STATE_UNITS),
+                    new long[]{2, batchSize, STATE_UNITS});
+            outputTensor = OnnxTensor.createTensor(model.env(), prefix(outputBuffer, batchSize),
+                    new long[]{batchSize, 1});
+            stateOutTensor = OnnxTensor.createTensor(model.env(), prefix(stateOutBuffer, 2 * batchSize * STATE_UNITS),
+                    new long[]{2, batchSize, STATE_UNITS});
+
+            inputs.put("input", inputTensor);
+            inputs.put("sr", srTensor);
+            inputs.put("state", stateTensor);
+            pinnedOutputs.put(model.scoreOutput(), outputTensor);
+            pinnedOutputs.put(model.stateOutput(), stateOutTensor);
+        }
+
+        void close() {
+            inputTensor.close();
+            stateTensor.close();
+            outputTensor.close();
+            stateOutTensor.close();
+        }
+    }
+
+    /**
+     * 单路音频流的循环状态
+     */
+    private static class StreamState {
+        private final float[] state = new float[2 * STATE_UNITS];
+        private long processedSamples;
+        private boolean open;
+        // 最近一次参与的批次序号
+        private long lastBatch;
+
+        void reset() {
+            Arrays.fill(state, 0f);
+            processedSamples = 0;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.yren.study.vadDemo.vad;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 能量预门限
+ * 推理前计算窗口的RMS与峰值，低于噪声底的窗口直接判为静音（概率为0），不再调用模型；
+ * 跳过推理时按 {@link StateMode} 处理循环状态。统计计数线程安全，可被多路音频流共享
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class EnergyGate {
+    // 校准时取窗口RMS的分位数作为噪声底
+    private static final float CALIBRATION_PERCENTILE = 0.1f;
+    // 校准噪声底之上的余量（dB）
+    private static final float CALIBRATION_MARGIN_DB = 6f;
+    // 峰值门限相对RMS门限的倍数（约12dB）
+    private static final float PEAK_TO_RMS_RATIO = 4f;
+    private static final float DEFAULT_DECAY_FACTOR = 0.5f;
+
+    /**
+     * 跳过推理时循环状态的处理方式
+     */
+    public enum StateMode {
+        // 清零状态，下一次推理相当于从新音频开始
+        RESET,
+        // 每跳过一个窗口将状态乘以衰减系数，短暂静音后仍保留部分上下文
+        DECAY
+    }
+
+    private final float rmsFloor;
+    private final float peakFloor;
+    private final StateMode stateMode;
+    private final float decayFactor;
+
+    private final LongAdder windows = new LongAdder();
+    private final LongAdder skippedWindows = new LongAdder();
+
+    /**
+     * @param rmsFloor RMS门限（线性幅度，[0, 1]）
+     * @param peakFloor 峰值门限（线性幅度，[0, 1]），RMS与峰值都低于门限才跳过推理
+     * @param stateMode 跳过推理时的状态处理方式
+     */
+    public EnergyGate(float rmsFloor, float peakFloor, StateMode stateMode) {
+        this(rmsFloor, peakFloor, stateMode, DEFAULT_DECAY_FACTOR);
+    }
+
+    public EnergyGate(float rmsFloor, float peakFloor, StateMode stateMode, float decayFactor) {
+        this.rmsFloor = rmsFloor;
+        this.peakFloor = peakFloor;
+        this.stateMode = stateMode;
+        this.decayFactor = decayFactor;
+    }
+
+    /**
+     * 根据一段代表性音频校准噪声底：取窗口RMS的低分位数并加上余量
+     *
+     * @param audioData 用于校准的音频
+     * @param windowSize 窗口样本数
+     * @param stateMode 跳过推理时的状态处理方式
+     * @return 校准后的能量门限
+     */
+    public static EnergyGate calibrate(float[] audioData, int windowSize, StateMode stateMode) {
+        int windowCount = audioData.length / windowSize;
+        if (windowCount == 0) {
+            throw new IllegalArgumentException("校准音频不足一个窗口");
+        }
+        float[] rmsValues = new float[windowCount];
+        for (int w = 0; w < windowCount; w++) {
+            rmsValues[w] = rms(audioData, w * windowSize, windowSize);
+        }
+        Arrays.sort(rmsValues);
+
+        float noiseFloor = rmsValues[(int) (CALIBRATION_PERCENTILE * (windowCount - 1))];
+        float rmsFloor = noiseFloor * dbToLinear(CALIBRATION_MARGIN_DB);
+        return new EnergyGate(rmsFloor, Math.min(1f, rmsFloor * PEAK_TO_RMS_RATIO), stateMode);
+    }
+
+    /**
+     * 判断窗口是否低于噪声底，并更新统计
+     *
+     * @return true表示可以跳过推理
+     */
+    public boolean isSilent(float[] audioData, int offset, int length) {
+        windows.increment();
+        float peak = 0;
+        float sum = 0;
+        for (int i = offset; i < offset + length; i++) {
+            float abs = Math.abs(audioData[i]);
+            sum += abs * abs;
+            if (abs > peak) {
+                peak = abs;
+            }
+        }
+        float rms = length == 0 ? 0 : (float) Math.sqrt(sum / length);
+
+        boolean silent = rms <= rmsFloor && peak <= peakFloor;
+        if (silent) {
+            skippedWindows.increment();
+        }
+        return silent;
+    }
+
+    static float rms(float[] audioData, int offset, int length) {
+        float sum = 0;
+        for (int i = offset; i < offset + length; i++) {
+            sum += audioData[i] * audioData[i];
+        }
+        return (float) Math.sqrt(sum / length);
+    }
+
+    public static float dbToLinear(float db) {
+        return (float) Math.pow(10, db / 20);
+    }
+
+    public static float linearToDb(float linear) {
+        return (float) (20 * Math.log10(Math.max(linear, 1e-10f)));
+    }
+
+    public float getRmsFloor() {
+        return rmsFloor;
+    }
+
+    public float getPeakFloor() {
+        return peakFloor;
+    }
+
+    public StateMode getStateMode() {
+        return stateMode;
+    }
+
+    public float getDecayFactor() {
+        return decayFactor;
+    }
+
+    public long getWindows() {
+        return windows.sum();
+    }
+
+    public long getSkippedWindows() {
+        return skippedWindows.sum();
+    }
+
+    /**
+     * @return 跳过推理的窗口比例
+     */
+    public double getSkippedRatio() {
+        long total = windows.sum();
+        return total == 0 ? 0 : skippedWindows.sum() / (double) total;
+    }
+
+    public void resetStats() {
+        windows.reset();
+        skippedWindows.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EnergyGate(rms<%.1fdBFS, peak<%.1fdBFS, %s) 跳过 %d/%d 窗口 (%.1f%%)",
+                linearToDb(rmsFloor), linearToDb(peakFloor), stateMode,
+                getSkippedWindows(), getWindows(), getSkippedRatio() * 100);
+    }
+}
@@ -0,0 +1,72 @@
+package com.yren.study.vadDemo.vad;
+
+import com.yren.study.vadDemo.audio.AudioPreprocessor;
+import com.yren.study.vadDemo.result.VadTimeline;
+import com.yren.study.vadDemo.result.VoiceSegment;
+
+import java.util.List;
+
+/**
+ * 能量预门限评估程序
+ * 分别以无门限、门限+状态清零、门限+状态衰减三种方式检测同一段音频，
+ * 输出跳过推理的比例、耗时以及相对无门限结果的判定一致性
+ * 用法: EnergyGateEvaluation [音频路径] [模型路径]
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class EnergyGateEvaluation {
+
+    private static final String WAV_FILE_PATH = "src/main/resources/audio/元数据.wav";
+    private static final String VAD_MODEL_PATH = "src/main/resources/model/silero_vad.onnx";
+
+    public static void main(String[] args) throws Exception {
+        String wavFilePath = args.length > 0 ? args[0] : WAV_FILE_PATH;
+        String modelPath = args.length > 1 ? args[1] : VAD_MODEL_PATH;
+
+        float[] audioData = new AudioPreprocessor().loadAndPreprocessWav(wavFilePath);
+        VoiceSegmentExtractor extractor = new VoiceSegmentExtractor();
+
+        try (SileroModel model = SileroModel.load(modelPath)) {
+            SileroVAD vad = new SileroVAD();
+            vad.useModel(model);
+
+            long start = System.nanoTime();
+            VadTimeline baseline = vad.detectVoiceTimeline(audioData);
+            long baselineNanos = System.nanoTime() - start;
+            List<VoiceSegment> baselineSegments = extractor.extractVoiceSegments(baseline, 0.5f);
+
+            System.out.println("=== 能量预门限评估 ===");
+            System.out.printf("无门限: %d 窗口, 耗时 %.1fms, %d 个语音片段%n",
+                    baseline.size(), baselineNanos / 1e6, baselineSegments.size());
+
+            for (EnergyGate.StateMode stateMode : EnergyGate.StateMode.values()) {
+                EnergyGate gate = EnergyGate.calibrate(audioData, model.getWindowSizeSamples(), stateMode);
+                vad.resetState();
+                vad.setEnergyGate(gate);
+
+                start = System.nanoTime();
+                VadTimeline gated = vad.detectVoiceTimeline(audioData);
+                long gatedNanos = System.nanoTime() - start;
+                List<VoiceSegment> gatedSegments = extractor.extractVoiceSegments(gated, 0.5f);
+
+                int agree = 0;
+                int missedVoice = 0;
+                for (int i = 0; i < baseline.size(); i++) {
+                    if (baseline.isVoice(i) == gated.isVoice(i)) {
+                        agree++;
+                    } else if (baseline.isVoice(i)) {
+                        missedVoice++;
+                    }
+                }
+
+                System.out.println("\n" + gate);
+                System.out.printf("耗时 %.1fms (%.2fx), 判定一致率 %.2f%%, 漏检语音窗口 %d, %d 个语音片段%n",
+                        gatedNanos / 1e6, baselineNanos / (double) Math.max(1, gatedNanos),
+                        agree * 100.0 / Math.max(1, baseline.size()), missedVoice, gatedSegments.size());
+            }
+            vad.setEnergyGate(null);
+            vad.close();
+        }
+    }
+}
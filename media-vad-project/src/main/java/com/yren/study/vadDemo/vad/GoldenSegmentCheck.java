@@ -0,0 +1,169 @@
+package com.yren.study.vadDemo.vad;
+
+import com.yren.study.vadDemo.audio.AudioComposer;
+import com.yren.study.vadDemo.audio.AudioPreprocessor;
+import com.yren.study.vadDemo.result.VadTimeline;
+import com.yren.study.vadDemo.result.VoiceSegment;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 片段提取回归检查程序
+ * 对示例音频执行 检测 → 片段提取 → 重叠合并，与保存的基准片段列表逐个比较边界，
+ * 同一次运行中还要求处理速度不低于最小实时倍率（音频秒数 / 墙钟秒数），防止优化改动悄悄改变结果或变慢
+ * 基准文件每行一个片段 "类型 开始秒 结束秒"，类型为 segment（提取结果）或 merged（合并结果），#开头为注释
+ * 用法: GoldenSegmentCheck [音频路径] [模型路径] [基准文件路径]
+ * -Dvad.golden.update=true 时用本次结果重写基准文件，
+ * 边界容差与最小实时倍率通过 -Dvad.golden.tolerance（秒）/ -Dvad.golden.minRtf 指定
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class GoldenSegmentCheck {
+
+    private static final String WAV_FILE_PATH = "src/main/resources/audio/元数据.wav";
+    private static final String VAD_MODEL_PATH = "src/main/resources/model/silero_vad.onnx";
+    private static final String GOLDEN_FILE_PATH = "src/main/resources/golden/元数据.segments.txt";
+    // 默认边界容差略大于一个窗口（32ms），默认最小实时倍率远低于单线程推理的正常水平，只拦截明显的性能退化
+    private static final float DEFAULT_TOLERANCE_SECONDS = 0.05f;
+    private static final double DEFAULT_MIN_REALTIME_FACTOR = 20.0;
+    private static final float MIN_SEGMENT_DURATION = 0.5f;
+    private static final float MERGE_PADDING_SECONDS = 0.2f;
+
+    private static final String SEGMENT = "segment";
+    private static final String MERGED = "merged";
+
+    public static void main(String[] args) throws Exception {
+        String wavFilePath = args.length > 0 ? args[0] : WAV_FILE_PATH;
+        String modelPath = args.length > 1 ? args[1] : VAD_MODEL_PATH;
+        Path goldenFile = Paths.get(args.length > 2 ? args[2] : GOLDEN_FILE_PATH);
+        boolean update = Boolean.getBoolean("vad.golden.update");
+        float tolerance = Float.parseFloat(System.getProperty("vad.golden.tolerance",
+                String.valueOf(DEFAULT_TOLERANCE_SECONDS)));
+        double minRealtimeFactor = Double.parseDouble(System.getProperty("vad.golden.minRtf",
+                String.valueOf(DEFAULT_MIN_REALTIME_FACTOR)));
+
+        VoiceSegmentExtractor extractor = new VoiceSegmentExtractor();
+        AudioComposer composer = new AudioComposer();
+        composer.setVerbose(false);
+
+        SileroVAD vad = new SileroVAD();
+        vad.loadModel(modelPath, SessionProfile.SINGLE_STREAM_LOW_LATENCY, null);
+        List<VoiceSegment> segments;
+        List<VoiceSegment> merged;
+        double audioSeconds;
+        long elapsedNanos;
+        try {
+            // 预热一次，避免JIT与会话首次运行的开销计入实时倍率
+            vad.detectVoiceTimeline(new AudioPreprocessor().loadAndPreprocessWav(wavFilePath));
+            vad.resetState();
+
+            // 计时范围：解码、检测、片段提取与合并
+            long start = System.nanoTime();
+            float[] audioData = new AudioPreprocessor().loadAndPreprocessWav(wavFilePath);
+            VadTimeline timeline = vad.detectVoiceTimeline(audioData);
+            segments = extractor.extractVoiceSegments(timeline, MIN_SEGMENT_DURATION);
+            merged = composer.mergeOverlappingSegments(segments, MERGE_PADDING_SECONDS);
+            elapsedNanos = System.nanoTime() - start;
+            audioSeconds = audioData.length / (double) vad.getSampleRate();
+        } finally {
+            vad.close();
+        }
+        double realtimeFactor = audioSeconds / (elapsedNanos / 1e9);
+
+        System.out.println("=== 片段提取回归检查 ===");
+        System.out.printf("音频: %.1fs, 耗时: %.1fms, 实时倍率: %.1fx, 片段: %d, 合并后: %d%n",
+                audioSeconds, elapsedNanos / 1e6, realtimeFactor, segments.size(), merged.size());
+
+        if (update) {
+            writeGolden(goldenFile, wavFilePath, segments, merged);
+            System.out.println("✓ 基准文件已更新: " + goldenFile);
+            return;
+        }
+        if (!Files.isRegularFile(goldenFile)) {
+            fail("基准文件不存在: " + goldenFile + "，请先以 -Dvad.golden.update=true 运行生成");
+        }
+
+        List<VoiceSegment> goldenSegments = new ArrayList<>();
+        List<VoiceSegment> goldenMerged = new ArrayList<>();
+        readGolden(goldenFile, goldenSegments, goldenMerged);
+
+        compare(SEGMENT, goldenSegments, segments, tolerance);
+        compare(MERGED, goldenMerged, merged, tolerance);
+        if (realtimeFactor < minRealtimeFactor) {
+            fail(String.format("实时倍率 %.1fx 低于下限 %.1fx", realtimeFactor, minRealtimeFactor));
+        }
+        System.out.printf("✓ 片段边界与基准一致（容差 %.0fms），实时倍率不低于 %.1fx%n",
+                tolerance * 1000, minRealtimeFactor);
+    }
+
+    private static void compare(String type, List<VoiceSegment> expected, List<VoiceSegment> actual, float tolerance) {
+        if (expected.size() != actual.size()) {
+            fail(type + " 片段数不一致: 基准 " + expected.size() + ", 实际 " + actual.size());
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            VoiceSegment golden = expected.get(i);
+            VoiceSegment segment = actual.get(i);
+            float drift = Math.max(Math.abs(golden.getStartTime() - segment.getStartTime()),
+                    Math.abs(golden.getEndTime() - segment.getEndTime()));
+            if (drift > tolerance) {
+                fail(String.format("%s 片段#%d 边界偏移 %.0fms: 基准 %s, 实际 %s",
+                        type, i + 1, drift * 1000, golden, segment));
+            }
+        }
+    }
+
+    private static void writeGolden(Path goldenFile, String wavFilePath, List<VoiceSegment> segments,
+                                    List<VoiceSegment> merged) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("# " + Paths.get(wavFilePath).getFileName() + " 的基准片段，由 GoldenSegmentCheck -Dvad.golden.update=true 生成");
+        lines.add("# 片段提取最短时长 " + MIN_SEGMENT_DURATION + "s，合并缓冲区 " + MERGE_PADDING_SECONDS + "s");
+        for (VoiceSegment segment : segments) {
+            lines.add(format(SEGMENT, segment));
+        }
+        for (VoiceSegment segment : merged) {
+            lines.add(format(MERGED, segment));
+        }
+        if (goldenFile.getParent() != null) {
+            Files.createDirectories(goldenFile.getParent());
+        }
+        Files.write(goldenFile, lines, StandardCharsets.UTF_8);
+    }
+
+    private static String format(String type, VoiceSegment segment) {
+        return String.format(Locale.ROOT, "%s %.3f %.3f", type, segment.getStartTime(), segment.getEndTime());
+    }
+
+    private static void readGolden(Path goldenFile, List<VoiceSegment> segments,
+                                   List<VoiceSegment> merged) throws IOException {
+        for (String line : Files.readAllLines(goldenFile, StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\s+");
+            float start = Float.parseFloat(fields[1]);
+            float end = Float.parseFloat(fields[2]);
+            VoiceSegment segment = new VoiceSegment(start, end, end - start);
+            if (SEGMENT.equals(fields[0])) {
+                segments.add(segment);
+            } else if (MERGED.equals(fields[0])) {
+                merged.add(segment);
+            } else {
+                throw new IOException("基准文件格式错误: " + line);
+            }
+        }
+    }
+
+    private static void fail(String message) {
+        System.err.println("❌ " + message);
+        System.exit(1);
+    }
+}
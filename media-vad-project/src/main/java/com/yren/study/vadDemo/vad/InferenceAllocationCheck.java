@@ -0,0 +1,70 @@
+package com.yren.study.vadDemo.vad;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * 推理内存分配检查程序
+ * 预热后统计稳态推理过程中当前线程每个窗口的堆内存分配字节数
+ * 用法: InferenceAllocationCheck [模型路径] [窗口数]
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class InferenceAllocationCheck {
+
+    private static final String VAD_MODEL_PATH = "src/main/resources/model/silero_vad.onnx";
+    private static final int WARMUP_WINDOWS = 2_000;
+    // ORT Java API 每次 run 仍会创建 Result 等少量包装对象，超出该值视为回归
+    private static final long MAX_BYTES_PER_WINDOW = 1024;
+
+    public static void main(String[] args) throws Exception {
+        String modelPath = args.length > 0 ? args[0] : VAD_MODEL_PATH;
+        int windows = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        SileroVAD vad = new SileroVAD();
+        vad.loadModel(modelPath);
+
+        // 生成一段带噪声的正弦波作为输入
+        float[] audio = new float[vad.getWindowSizeSamples() * 64];
+        for (int i = 0; i < audio.length; i++) {
+            audio[i] = (float) (0.3 * Math.sin(2 * Math.PI * 220 * i / (double) vad.getSampleRate()) + 0.01 * Math.random());
+        }
+
+        try {
+            float sink = 0;
+            for (int i = 0; i < WARMUP_WINDOWS; i++) {
+                sink += vad.processWindow(audio, windowOffset(audio, i, vad.getWindowSizeSamples()));
+            }
+
+            long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+            long startNanos = System.nanoTime();
+            for (int i = 0; i < windows; i++) {
+                sink += vad.processWindow(audio, windowOffset(audio, i, vad.getWindowSizeSamples()));
+            }
+            long elapsedNanos = System.nanoTime() - startNanos;
+            long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+            double bytesPerWindow = allocated / (double) windows;
+            System.out.println("=== 推理内存分配检查 ===");
+            System.out.println("窗口数: " + windows + " (checksum " + sink + ")");
+            System.out.printf("平均耗时: %.1f us/window%n", elapsedNanos / 1000.0 / windows);
+            System.out.printf("堆分配: %d bytes, %.1f bytes/window%n", allocated, bytesPerWindow);
+
+            if (bytesPerWindow > MAX_BYTES_PER_WINDOW) {
+                System.err.println("❌ 每窗口分配超过 " + MAX_BYTES_PER_WINDOW + " bytes");
+                System.exit(1);
+            }
+            System.out.println("✓ 稳态推理分配在阈值内");
+        } finally {
+            vad.close();
+        }
+    }
+
+    private static int windowOffset(float[] audio, int window, int windowSize) {
+        return (window % (audio.length / windowSize)) * windowSize;
+    }
+}
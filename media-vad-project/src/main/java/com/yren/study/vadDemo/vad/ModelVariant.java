@@ -0,0 +1,61 @@
+package com.yren.study.vadDemo.vad;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Silero VAD 模型变体
+ * 各变体的输入输出完全一致，只是权重精度不同，放在同一个模型目录下按文件名区分；
+ * INT8 变体由原始模型经 onnxruntime.quantization.quantize_dynamic 动态量化得到，
+ * 推理CPU开销更低，是否影响检测质量需用 {@link ModelVariantEvaluation} 评估
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public enum ModelVariant {
+    FP32("silero_vad.onnx"),
+    INT8("silero_vad_int8.onnx");
+
+    private final String fileName;
+
+    ModelVariant(String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * 按名称查找，不区分大小写
+     * @param name 变体名称，如 fp32、int8
+     * @return 对应的模型变体
+     */
+    public static ModelVariant of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("未知的模型变体: " + name + "，可选 fp32 / int8");
+        }
+    }
+
+    /**
+     * @return 模型文件名
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * @param modelDir 模型目录
+     * @return 该变体在模型目录下的路径，文件不一定存在
+     */
+    public Path resolve(Path modelDir) {
+        return modelDir.resolve(fileName);
+    }
+
+    /**
+     * @param modelDir 模型目录
+     * @return 该变体的模型文件是否存在
+     */
+    public boolean isAvailable(Path modelDir) {
+        return Files.isRegularFile(resolve(modelDir));
+    }
+}
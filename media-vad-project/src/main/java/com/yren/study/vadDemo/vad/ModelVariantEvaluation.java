@@ -0,0 +1,249 @@
+package com.yren.study.vadDemo.vad;
+
+import com.yren.study.vadDemo.audio.AudioPreprocessor;
+import com.yren.study.vadDemo.result.VadTimeline;
+import com.yren.study.vadDemo.result.VoiceSegment;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 模型变体评估程序
+ * 用模型目录下每个可用的变体检测同一批带标注的音频，并排输出帧级精确率/召回率、片段边界偏移和推理吞吐
+ * 标注文件与音频同名、扩展名为 .labels.txt，每行一个语音片段 "开始秒 结束秒"，#开头为注释；
+ * 音频没有标注时以 FP32 变体的检测结果作为参考：帧级指标以 FP32 每个窗口的判定为参考，边界偏移以 FP32 提取的片段为参考，
+ * 此时精确率/召回率表示与 FP32 的一致程度，FP32 自身必须为100%，否则视为评估本身出错
+ * 用法: ModelVariantEvaluation [模型目录] [音频路径...]
+ * 采样率模式通过 -Dvad.sampleRate 指定
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class ModelVariantEvaluation {
+
+    private static final String WAV_FILE_PATH = "src/main/resources/audio/元数据.wav";
+    private static final String MODEL_DIR = "src/main/resources/model";
+    private static final String LABELS_SUFFIX = ".labels.txt";
+    private static final float MIN_SEGMENT_DURATION = 0.5f;
+
+    public static void main(String[] args) throws Exception {
+        Path modelDir = Paths.get(args.length > 0 ? args[0] : MODEL_DIR);
+        List<String> corpus = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            corpus.add(args[i]);
+        }
+        if (corpus.isEmpty()) {
+            corpus.add(WAV_FILE_PATH);
+        }
+        VadSampleRate sampleRate = VadSampleRate.of(Integer.getInteger("vad.sampleRate", 16000));
+
+        List<ModelVariant> variants = new ArrayList<>();
+        for (ModelVariant variant : ModelVariant.values()) {
+            if (variant.isAvailable(modelDir)) {
+                variants.add(variant);
+            } else {
+                System.out.println("跳过模型变体 " + variant + "，文件不存在: " + variant.resolve(modelDir));
+            }
+        }
+        if (!variants.contains(ModelVariant.FP32)) {
+            System.err.println("模型目录下缺少 FP32 参考模型: " + ModelVariant.FP32.resolve(modelDir));
+            System.exit(1);
+        }
+
+        // 加载音频与各变体的检测结果
+        AudioPreprocessor preprocessor = new AudioPreprocessor(sampleRate.getHertz());
+        VoiceSegmentExtractor extractor = new VoiceSegmentExtractor();
+        Map<ModelVariant, Result> results = new EnumMap<>(ModelVariant.class);
+        for (ModelVariant variant : variants) {
+            results.put(variant, new Result());
+        }
+
+        boolean selfReferenced = true;
+        for (String wavFilePath : corpus) {
+            float[] audioData = preprocessor.loadAndPreprocessWav(wavFilePath);
+            Map<ModelVariant, VadTimeline> timelines = new EnumMap<>(ModelVariant.class);
+            for (ModelVariant variant : variants) {
+                SileroVAD vad = new SileroVAD();
+                vad.loadModel(modelDir, variant, SessionProfile.SINGLE_STREAM_LOW_LATENCY, null, sampleRate);
+                try {
+                    // 先完整跑一遍预热，再计时
+                    vad.detectVoiceTimeline(audioData);
+                    vad.resetState();
+                    long start = System.nanoTime();
+                    timelines.put(variant, vad.detectVoiceTimeline(audioData));
+                    results.get(variant).inferenceNanos += System.nanoTime() - start;
+                } finally {
+                    vad.close();
+                }
+            }
+
+            List<float[]> labels = loadLabels(wavFilePath);
+            List<float[]> windowLabels = labels;
+            if (labels == null) {
+                System.out.println(wavFilePath + " 没有标注文件，以 FP32 检测结果作为参考");
+                VadTimeline reference = timelines.get(ModelVariant.FP32);
+                // 帧级参考直接取窗口判定，片段提取会丢弃过短的片段，不能作为帧级参考
+                windowLabels = voiceRanges(reference);
+                labels = toRanges(extractor.extractVoiceSegments(reference, MIN_SEGMENT_DURATION));
+            } else {
+                selfReferenced = false;
+            }
+            for (ModelVariant variant : variants) {
+                VadTimeline timeline = timelines.get(variant);
+                results.get(variant).accumulate(timeline, windowLabels, labels,
+                        toRanges(extractor.extractVoiceSegments(timeline, MIN_SEGMENT_DURATION)));
+            }
+        }
+
+        System.out.println("\n=== 模型变体评估 (" + corpus.size() + " 个音频, " + sampleRate.getHertz() + "Hz) ===");
+        System.out.printf("%-6s %10s %10s %8s %14s %12s %14s%n",
+                "变体", "精确率", "召回率", "F1", "边界偏移(ms)", "漏检片段", "窗口/秒");
+        for (ModelVariant variant : variants) {
+            Result result = results.get(variant);
+            System.out.printf("%-6s %9.2f%% %9.2f%% %8.4f %14.1f %12d %14.0f%n",
+                    variant, result.precision() * 100, result.recall() * 100, result.f1(),
+                    result.meanBoundaryDriftMillis(), result.missedSegments, result.windowsPerSecond());
+        }
+
+        // 只有全部音频都以 FP32 为参考时，FP32 的帧级指标才必然为100%
+        Result reference = results.get(ModelVariant.FP32);
+        if (selfReferenced && (reference.falsePositives != 0 || reference.falseNegatives != 0)) {
+            System.err.println("❌ FP32 与自身的帧级判定不一致，参考构建有误");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 把连续的语音窗口合并为 [开始秒, 结束秒] 区间，区间与窗口判定一一对应
+     */
+    private static List<float[]> voiceRanges(VadTimeline timeline) {
+        List<float[]> ranges = new ArrayList<>();
+        int start = timeline.nextVoiceWindow(0);
+        while (start >= 0) {
+            int end = timeline.nextSilenceWindow(start);
+            ranges.add(new float[]{timeline.getStartTime(start), timeline.getEndTime(end - 1)});
+            start = timeline.nextVoiceWindow(end);
+        }
+        return ranges;
+    }
+
+    /**
+     * 读取音频旁的标注文件
+     * @return 语音片段 [开始秒, 结束秒] 列表，标注文件不存在时返回null
+     */
+    private static List<float[]> loadLabels(String wavFilePath) throws IOException {
+        Path labelFile = Paths.get(wavFilePath.replaceFirst("\\.[^./\\\\]+$", "") + LABELS_SUFFIX);
+        if (!Files.isRegularFile(labelFile)) {
+            return null;
+        }
+        List<float[]> labels = new ArrayList<>();
+        for (String line : Files.readAllLines(labelFile, StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\s+");
+            labels.add(new float[]{Float.parseFloat(fields[0]), Float.parseFloat(fields[1])});
+        }
+        return labels;
+    }
+
+    private static List<float[]> toRanges(List<VoiceSegment> segments) {
+        List<float[]> ranges = new ArrayList<>(segments.size());
+        for (VoiceSegment segment : segments) {
+            ranges.add(new float[]{segment.getStartTime(), segment.getEndTime()});
+        }
+        return ranges;
+    }
+
+    private static boolean contains(List<float[]> ranges, float time) {
+        for (float[] range : ranges) {
+            if (time >= range[0] && time < range[1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 单个变体在整个语料上的累计指标
+     */
+    private static class Result {
+        private long truePositives;
+        private long falsePositives;
+        private long falseNegatives;
+        private long windows;
+        private long inferenceNanos;
+        private double boundaryDriftSeconds;
+        private int matchedSegments;
+        private int missedSegments;
+
+        /**
+         * 帧级指标以窗口中点是否落在 windowLabels 区间内作为该窗口的真实标签；
+         * 边界偏移为每个 labels 片段与重叠最多的检测片段的开始、结束时间差的平均值
+         */
+        void accumulate(VadTimeline timeline, List<float[]> windowLabels, List<float[]> labels,
+                        List<float[]> detected) {
+            for (int i = 0; i < timeline.size(); i++) {
+                float middle = (timeline.getStartTime(i) + timeline.getEndTime(i)) / 2;
+                boolean expected = contains(windowLabels, middle);
+                boolean actual = timeline.isVoice(i);
+                if (actual && expected) {
+                    truePositives++;
+                } else if (actual) {
+                    falsePositives++;
+                } else if (expected) {
+                    falseNegatives++;
+                }
+            }
+            windows += timeline.size();
+
+            for (float[] label : labels) {
+                float[] best = null;
+                float bestOverlap = 0;
+                for (float[] segment : detected) {
+                    float overlap = Math.min(label[1], segment[1]) - Math.max(label[0], segment[0]);
+                    if (overlap > bestOverlap) {
+                        bestOverlap = overlap;
+                        best = segment;
+                    }
+                }
+                if (best == null) {
+                    missedSegments++;
+                } else {
+                    boundaryDriftSeconds += (Math.abs(best[0] - label[0]) + Math.abs(best[1] - label[1])) / 2;
+                    matchedSegments++;
+                }
+            }
+        }
+
+        double precision() {
+            return truePositives / (double) Math.max(1, truePositives + falsePositives);
+        }
+
+        double recall() {
+            return truePositives / (double) Math.max(1, truePositives + falseNegatives);
+        }
+
+        double f1() {
+            double precision = precision();
+            double recall = recall();
+            return precision + recall == 0 ? 0 : 2 * precision * recall / (precision + recall);
+        }
+
+        double meanBoundaryDriftMillis() {
+            return boundaryDriftSeconds * 1000 / Math.max(1, matchedSegments);
+        }
+
+        double windowsPerSecond() {
+            return windows / Math.max(1e-9, inferenceNanos / 1e9);
+        }
+    }
+}
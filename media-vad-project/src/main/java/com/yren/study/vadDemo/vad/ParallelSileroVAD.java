@@ -0,0 +1,110 @@
+package com.yren.study.vadDemo.vad;
+
+import ai.onnxruntime.OrtException;
+import com.yren.study.vadDemo.result.VadResult;
+import com.yren.study.vadDemo.result.VadTimeline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * 长音频离线并行VAD
+ * 将音频切分为多个分片，每个分片在 ForkJoinPool 中使用独立的 {@link VadStream} 推理，
+ * 分片开始前先用一段预热音频让循环状态收敛，最后按时间顺序拼接为完整的结果
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class ParallelSileroVAD {
+    private static final float DEFAULT_THRESHOLD = 0.3f;
+    // 默认分片时长与预热时长（秒）
+    private static final float DEFAULT_SHARD_SECONDS = 60f;
+    private static final float DEFAULT_WARMUP_SECONDS = 2f;
+
+    private final SileroModel model;
+    private final ForkJoinPool pool;
+    private final int windowSize;
+    private final int sampleRate;
+    // 分片和预热长度都按窗口对齐，保证与串行检测的窗口划分一致
+    private final int shardSamples;
+    private final int warmupSamples;
+
+    public ParallelSileroVAD(SileroModel model) {
+        this(model, DEFAULT_SHARD_SECONDS, DEFAULT_WARMUP_SECONDS, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param model 共享模型
+     * @param shardSeconds 每个分片的时长（秒）
+     * @param warmupSeconds 每个分片前的预热时长（秒），预热部分只推理不输出结果
+     * @param pool 执行分片的线程池
+     */
+    public ParallelSileroVAD(SileroModel model, float shardSeconds, float warmupSeconds, ForkJoinPool pool) {
+        if (shardSeconds <= 0 || warmupSeconds < 0) {
+            throw new IllegalArgumentException("分片时长必须大于0，预热时长不能为负数");
+        }
+        this.model = model;
+        this.pool = pool;
+        this.windowSize = model.getWindowSizeSamples();
+        this.sampleRate = model.getSampleRate();
+        this.shardSamples = Math.max(1, Math.round(shardSeconds * sampleRate / windowSize)) * windowSize;
+        this.warmupSamples = Math.round(warmupSeconds * sampleRate / windowSize) * windowSize;
+    }
+
+    /**
+     * @return 只读的结果列表视图，底层为列式存储的 {@link VadTimeline}
+     */
+    public List<VadResult> detectVoiceActivity(float[] audioData) throws OrtException {
+        return detectVoiceTimeline(audioData).asList();
+    }
+
+    public VadTimeline detectVoiceTimeline(float[] audioData) throws OrtException {
+        List<Callable<VadTimeline>> shards = new ArrayList<>();
+        for (int shardStart = 0; shardStart < audioData.length; shardStart += shardSamples) {
+            int start = shardStart;
+            int end = (int) Math.min((long) shardStart + shardSamples, audioData.length);
+            shards.add(() -> detectShard(audioData, start, end));
+        }
+
+        // 按分片顺序拼接结果
+        VadTimeline timeline = new VadTimeline(windowSize, sampleRate, DEFAULT_THRESHOLD,
+                audioData.length / windowSize + 1);
+        try {
+            for (Future<VadTimeline> shard : pool.invokeAll(shards)) {
+                timeline.append(shard.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OrtException("并行VAD被中断");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof OrtException) {
+                throw (OrtException) e.getCause();
+            }
+            throw new IllegalStateException("分片VAD执行失败", e.getCause());
+        }
+        return timeline;
+    }
+
+    /**
+     * 处理单个分片 [start, end)，先推理 [start - warmup, start) 的预热窗口
+     */
+    private VadTimeline detectShard(float[] audioData, int start, int end) throws OrtException {
+        VadTimeline timeline = new VadTimeline(windowSize, sampleRate, DEFAULT_THRESHOLD,
+                (end - start) / windowSize + 1);
+        try (VadStream stream = model.newStream()) {
+            for (int i = Math.max(0, start - warmupSamples); i < start; i += windowSize) {
+                stream.process(audioData, i);
+            }
+
+            for (int i = start; i < end; i += windowSize) {
+                int endIdx = Math.min(i + windowSize, audioData.length);
+                timeline.add(stream.process(audioData, i), endIdx - i);
+            }
+        }
+        return timeline;
+    }
+}
@@ -0,0 +1,172 @@
+package com.yren.study.vadDemo.vad;
+
+import com.yren.study.vadDemo.audio.FloatRingBuffer;
+
+/**
+ * 把流式检测到的语音片段音频（含前置填充）交给下游
+ * 原始音频写入有界的前置环形缓冲区，VAD概率交给内部的 {@link StreamingSegmentDetector}；
+ * 片段确认开始后，把起点之后的音频交给 {@link Sink}，此后每个窗口判定完立即交出新增的音频，
+ * 处于待确认的静音中时暂缓交出，片段结束时交出剩余音频，因此片段不会多带静音尾巴。
+ * 内存占用只有前置缓冲区和一个中转块，与音频长度无关；非线程安全，writeAudio 与 accept 需在同一线程调用
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class SegmentAudioRouter {
+    // 每次交给下游的最大样本数
+    private static final int MAX_CHUNK_SAMPLES = 4096;
+
+    /**
+     * 片段音频的接收方
+     */
+    public interface Sink {
+        /**
+         * @param segmentId 片段序号，从0开始
+         * @param startSample 片段起点（含前置填充），前置缓冲区不足时为仍保留的最早样本
+         */
+        void onStart(long segmentId, long startSample);
+
+        /**
+         * @param samples 中转缓冲区，仅在回调期间有效
+         * @param length 样本数
+         * @param position samples[0] 在音频流中的位置
+         */
+        void onAudio(long segmentId, float[] samples, int length, long position);
+
+        /**
+         * @param endSample 片段终点（不含）
+         */
+        void onEnd(long segmentId, long endSample);
+    }
+
+    private final StreamingSegmentDetector detector;
+    private final FloatRingBuffer preRoll;
+    private final float[] chunk = new float[MAX_CHUNK_SAMPLES];
+    private final Sink sink;
+    private final SegmentListener delegate;
+
+    private long segmentId = -1;
+    private boolean inSegment = false;
+    // 当前片段已交出到的样本位置
+    private long routedPosition;
+
+    /**
+     * 使用检测器默认的前后填充时长
+     *
+     * @param sampleRate 采样率
+     * @param preRollSamples 前置环形缓冲区容量
+     * @param sink 片段音频接收方
+     * @param delegate 额外的片段事件回调，可为null
+     */
+    public SegmentAudioRouter(int sampleRate, int preRollSamples, Sink sink, SegmentListener delegate) {
+        this(sampleRate, preRollSamples, StreamingSegmentDetector.DEFAULT_SPEECH_PAD_MS, sink, delegate);
+    }
+
+    /**
+     * @param sampleRate 采样率
+     * @param preRollSamples 前置环形缓冲区容量，需覆盖最短语音时长、前置填充与最短静音时长之和
+     * @param speechPadMs 片段前后的填充时长（毫秒），即片段音频在检测到的语音起点之前多带的音频
+     * @param sink 片段音频接收方
+     * @param delegate 额外的片段事件回调，可为null
+     * @throws IllegalArgumentException 前置缓冲区容量不足以保留片段起点之后的音频
+     */
+    public SegmentAudioRouter(int sampleRate, int preRollSamples, int speechPadMs, Sink sink,
+                              SegmentListener delegate) {
+        this.sink = sink;
+        this.delegate = delegate;
+        this.detector = new StreamingSegmentDetector(sampleRate, new SegmentListener() {
+            @Override
+            public void onSegmentStart(long startSample) {
+                startSegment(startSample);
+            }
+
+            @Override
+            public void onSegmentEnd(long startSample, long endSample) {
+                endSegment(startSample, endSample);
+            }
+        }, speechPadMs);
+        if (preRollSamples < detector.getMaxLookbackSamples()) {
+            throw new IllegalArgumentException("前置缓冲区容量不足: " + preRollSamples + " < "
+                    + detector.getMaxLookbackSamples() + "（最短语音 + 前置填充 + 最短静音）");
+        }
+        this.preRoll = new FloatRingBuffer(preRollSamples);
+    }
+
+    /**
+     * 写入原始音频，需与送入VAD的音频是同一条流、从同一位置开始
+     */
+    public void writeAudio(float[] samples, int offset, int length) {
+        preRoll.write(samples, offset, length);
+    }
+
+    /**
+     * 输入一个窗口的VAD概率，并交出该窗口确认属于片段的音频
+     *
+     * @param score VAD概率值
+     * @param windowSamples 窗口前移的样本数
+     */
+    public void accept(float score, int windowSamples) {
+        detector.accept(score, windowSamples);
+        if (inSegment) {
+            routeAudio(detector.getCommittedPosition());
+        }
+    }
+
+    /**
+     * 音频结束时调用，结束尚未关闭的片段
+     */
+    public void flush() {
+        detector.flush();
+    }
+
+    private void startSegment(long startSample) {
+        segmentId++;
+        inSegment = true;
+        // 前置缓冲区容量不足时，从仍保留的最早样本开始
+        routedPosition = Math.max(startSample, preRoll.getWritePosition() - preRoll.capacity());
+        sink.onStart(segmentId, routedPosition);
+        if (delegate != null) {
+            delegate.onSegmentStart(startSample);
+        }
+    }
+
+    private void endSegment(long startSample, long endSample) {
+        routeAudio(endSample);
+        sink.onEnd(segmentId, endSample);
+        inSegment = false;
+        if (delegate != null) {
+            delegate.onSegmentEnd(startSample, endSample);
+        }
+    }
+
+    private void routeAudio(long untilPosition) {
+        long limit = Math.min(untilPosition, preRoll.getWritePosition());
+        while (routedPosition < limit) {
+            int length = (int) Math.min(chunk.length, limit - routedPosition);
+            preRoll.peekAt(routedPosition, chunk, 0, length);
+            sink.onAudio(segmentId, chunk, length, routedPosition);
+            routedPosition += length;
+        }
+    }
+
+    /**
+     * @return 当前是否处于已确认的语音片段中
+     */
+    public boolean isSpeech() {
+        return detector.isSpeech();
+    }
+
+    /**
+     * @return 已确认的片段数
+     */
+    public long getSegmentCount() {
+        return segmentId + 1;
+    }
+
+    /**
+     * @return 已输入VAD的样本数
+     */
+    public long getPosition() {
+        return detector.getPosition();
+    }
+}
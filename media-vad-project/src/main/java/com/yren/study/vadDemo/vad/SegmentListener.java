@@ -0,0 +1,26 @@
+package com.yren.study.vadDemo.vad;
+
+/**
+ * 流式语音片段事件回调
+ * 位置均为样本下标，可通过采样率换算为秒
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public interface SegmentListener {
+
+    /**
+     * 确认一段语音开始（已满足最短语音时长）
+     *
+     * @param startSample 片段起始样本（含前置填充）
+     */
+    void onSegmentStart(long startSample);
+
+    /**
+     * 确认一段语音结束（已满足最短静音时长）
+     *
+     * @param startSample 片段起始样本（含前置填充）
+     * @param endSample 片段结束样本（含后置填充，不含）
+     */
+    void onSegmentEnd(long startSample, long endSample);
+}
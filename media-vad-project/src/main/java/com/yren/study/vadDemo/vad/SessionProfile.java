@@ -0,0 +1,79 @@
+package com.yren.study.vadDemo.vad;
+
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+
+/**
+ * ONNX Runtime 会话配置档
+ * 针对不同的运行场景预设图优化级别、线程数、执行模式与内存分配策略
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public enum SessionProfile {
+
+    /**
+     * 单路实时流：单线程推理，避免线程切换带来的延迟抖动
+     */
+    SINGLE_STREAM_LOW_LATENCY {
+        @Override
+        void configure(OrtSession.SessionOptions options) throws OrtException {
+            options.setOptimizationLevel(OrtSession.SessionOptions.OptLevel.ALL_OPT);
+            options.setExecutionMode(OrtSession.SessionOptions.ExecutionMode.SEQUENTIAL);
+            options.setIntraOpNumThreads(1);
+            options.setInterOpNumThreads(1);
+            options.setMemoryPatternOptimization(true);
+            options.setCPUArenaAllocator(true);
+        }
+    },
+
+    /**
+     * 批量吞吐：大批次推理，算子内并行使用全部CPU核
+     */
+    BATCH_THROUGHPUT {
+        @Override
+        void configure(OrtSession.SessionOptions options) throws OrtException {
+            options.setOptimizationLevel(OrtSession.SessionOptions.OptLevel.ALL_OPT);
+            options.setExecutionMode(OrtSession.SessionOptions.ExecutionMode.SEQUENTIAL);
+            options.setIntraOpNumThreads(Runtime.getRuntime().availableProcessors());
+            options.setInterOpNumThreads(1);
+            options.setMemoryPatternOptimization(true);
+            options.setCPUArenaAllocator(true);
+        }
+    },
+
+    /**
+     * 大量小会话：每个会话单线程且不自旋等待，关闭内存池以降低单个会话的常驻内存
+     */
+    MANY_SMALL_SESSIONS {
+        @Override
+        void configure(OrtSession.SessionOptions options) throws OrtException {
+            options.setOptimizationLevel(OrtSession.SessionOptions.OptLevel.ALL_OPT);
+            options.setExecutionMode(OrtSession.SessionOptions.ExecutionMode.SEQUENTIAL);
+            options.setIntraOpNumThreads(1);
+            options.setInterOpNumThreads(1);
+            options.setMemoryPatternOptimization(false);
+            options.setCPUArenaAllocator(false);
+            options.addConfigEntry("session.intra_op.allow_spinning", "0");
+        }
+    };
+
+    /**
+     * 将配置档应用到会话选项
+     */
+    abstract void configure(OrtSession.SessionOptions options) throws OrtException;
+
+    /**
+     * @return 按本配置档创建的会话选项，使用完需关闭
+     */
+    public OrtSession.SessionOptions createOptions() throws OrtException {
+        OrtSession.SessionOptions options = new OrtSession.SessionOptions();
+        try {
+            configure(options);
+        } catch (OrtException e) {
+            options.close();
+            throw e;
+        }
+        return options;
+    }
+}
@@ -0,0 +1,97 @@
+package com.yren.study.vadDemo.vad;
+
+import com.yren.study.vadDemo.audio.AudioPreprocessor;
+import com.yren.study.vadDemo.result.VadResult;
+import com.yren.study.vadDemo.result.VoiceSegment;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 分片并行VAD一致性检查程序
+ * 对同一段音频分别执行串行检测和分片并行检测，比较窗口判定与语音片段边界
+ * 用法: ShardConsistencyCheck [音频路径] [模型路径] [分片秒数] [预热秒数]
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class ShardConsistencyCheck {
+
+    private static final String WAV_FILE_PATH = "src/main/resources/audio/元数据.wav";
+    private static final String VAD_MODEL_PATH = "src/main/resources/model/silero_vad.onnx";
+    // 允许的窗口判定不一致比例与片段边界偏移（秒）
+    private static final double MAX_DECISION_MISMATCH = 0.01;
+    private static final float MAX_BOUNDARY_DRIFT_SECONDS = 0.1f;
+
+    public static void main(String[] args) throws Exception {
+        String wavFilePath = args.length > 0 ? args[0] : WAV_FILE_PATH;
+        String modelPath = args.length > 1 ? args[1] : VAD_MODEL_PATH;
+        // 默认使用较短的分片，让示例音频也能产生多个分片边界
+        float shardSeconds = args.length > 2 ? Float.parseFloat(args[2]) : 5f;
+        float warmupSeconds = args.length > 3 ? Float.parseFloat(args[3]) : 2f;
+
+        float[] audioData = new AudioPreprocessor().loadAndPreprocessWav(wavFilePath);
+
+        try (SileroModel model = SileroModel.load(modelPath)) {
+            SileroVAD serialVad = new SileroVAD();
+            serialVad.useModel(model);
+            long serialStart = System.nanoTime();
+            List<VadResult> serial = serialVad.detectVoiceActivity(audioData);
+            long serialNanos = System.nanoTime() - serialStart;
+            serialVad.close();
+
+            ParallelSileroVAD parallelVad = new ParallelSileroVAD(model, shardSeconds, warmupSeconds,
+                    ForkJoinPool.commonPool());
+            long parallelStart = System.nanoTime();
+            List<VadResult> parallel = parallelVad.detectVoiceActivity(audioData);
+            long parallelNanos = System.nanoTime() - parallelStart;
+
+            if (serial.size() != parallel.size()) {
+                fail("窗口数不一致: " + serial.size() + " vs " + parallel.size());
+            }
+
+            int mismatches = 0;
+            float maxScoreDelta = 0;
+            for (int i = 0; i < serial.size(); i++) {
+                if (serial.get(i).isVoice() != parallel.get(i).isVoice()) {
+                    mismatches++;
+                }
+                maxScoreDelta = Math.max(maxScoreDelta,
+                        Math.abs(serial.get(i).getVadScore() - parallel.get(i).getVadScore()));
+            }
+            double mismatchRatio = mismatches / (double) Math.max(1, serial.size());
+
+            VoiceSegmentExtractor extractor = new VoiceSegmentExtractor();
+            List<VoiceSegment> serialSegments = extractor.extractVoiceSegments(serial, 0.5f);
+            List<VoiceSegment> parallelSegments = extractor.extractVoiceSegments(parallel, 0.5f);
+
+            System.out.println("=== 分片并行VAD一致性检查 ===");
+            System.out.printf("分片: %.1fs, 预热: %.1fs, 窗口数: %d%n", shardSeconds, warmupSeconds, serial.size());
+            System.out.printf("串行耗时: %.1fms, 并行耗时: %.1fms%n", serialNanos / 1e6, parallelNanos / 1e6);
+            System.out.printf("判定不一致窗口: %d (%.3f%%), 最大概率偏差: %.4f%n",
+                    mismatches, mismatchRatio * 100, maxScoreDelta);
+
+            if (mismatchRatio > MAX_DECISION_MISMATCH) {
+                fail("窗口判定不一致比例超过 " + MAX_DECISION_MISMATCH * 100 + "%");
+            }
+            if (serialSegments.size() != parallelSegments.size()) {
+                fail("语音片段数不一致: " + serialSegments.size() + " vs " + parallelSegments.size());
+            }
+            for (int i = 0; i < serialSegments.size(); i++) {
+                VoiceSegment expected = serialSegments.get(i);
+                VoiceSegment actual = parallelSegments.get(i);
+                float drift = Math.max(Math.abs(expected.getStartTime() - actual.getStartTime()),
+                        Math.abs(expected.getEndTime() - actual.getEndTime()));
+                if (drift > MAX_BOUNDARY_DRIFT_SECONDS) {
+                    fail("片段边界偏移过大: " + expected + " vs " + actual);
+                }
+            }
+            System.out.println("✓ 分片并行结果与串行结果一致 (" + serialSegments.size() + " 个语音片段)");
+        }
+    }
+
+    private static void fail(String message) {
+        System.err.println("❌ " + message);
+        System.exit(1);
+    }
+}
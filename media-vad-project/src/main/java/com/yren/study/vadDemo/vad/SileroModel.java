@@ -0,0 +1,237 @@
+package com.yren.study.vadDemo.vad;
+
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.UUID;
+
+/**
+ * Silero VAD 模型持有者
+ * 只负责加载模型和持有 OrtSession，不保存任何音频流状态，可被多个线程共享；
+ * 每路音频流通过 {@link #newStream()} 获取自己的 {@link VadStream} 执行推理
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class SileroModel implements AutoCloseable {
+    static final int STATE_UNITS = 128;
+    // 缓存的优化级别：ALL_OPT 的布局变换（如NCHWc）与CPU指令集相关，缓存只保存与硬件无关的优化结果
+    private static final OrtSession.SessionOptions.OptLevel CACHE_OPT_LEVEL =
+            OrtSession.SessionOptions.OptLevel.EXTENDED_OPT;
+
+    private final OrtEnvironment env;
+    private final OrtSession session;
+    private final String scoreOutput;
+    private final String stateOutput;
+    private final VadSampleRate sampleRate;
+
+    private SileroModel(OrtEnvironment env, OrtSession session, VadSampleRate sampleRate) {
+        this.env = env;
+        this.session = session;
+        this.sampleRate = sampleRate;
+
+        // 模型输出依次为 output(VAD概率) 与 stateN(新状态)
+        Iterator<String> outputNames = session.getOutputNames().iterator();
+        this.scoreOutput = outputNames.next();
+        this.stateOutput = outputNames.next();
+    }
+
+    /**
+     * 加载模型
+     * @param modelPath 模型路径
+     * @return 可共享的模型实例
+     * @throws OrtException 模型加载异常
+     */
+    public static SileroModel load(String modelPath) throws OrtException {
+        OrtEnvironment env = OrtEnvironment.getEnvironment();
+        try (OrtSession.SessionOptions options = new OrtSession.SessionOptions()) {
+            return new SileroModel(env, env.createSession(modelPath, options), VadSampleRate.RATE_16K);
+        }
+    }
+
+    /**
+     * 按指定的会话配置档加载模型
+     * @param modelPath 模型路径
+     * @param profile 会话配置档
+     * @return 可共享的模型实例
+     * @throws OrtException 模型加载异常
+     */
+    public static SileroModel load(String modelPath, SessionProfile profile) throws OrtException {
+        return load(modelPath, profile, null);
+    }
+
+    /**
+     * 按指定的会话配置档加载模型，并在磁盘上缓存图优化后的模型
+     * 缓存只保存 EXTENDED_OPT 级别、与硬件无关的优化结果，可以在不同CPU的机器间共享；
+     * 加载缓存时按配置档的优化级别只需再做与硬件相关的布局变换，省去重复的图融合；
+     * 缓存读写失败不影响模型加载
+     *
+     * @param modelPath 模型路径
+     * @param profile 会话配置档
+     * @param cacheDir 优化模型缓存目录，为null时不缓存
+     * @return 可共享的模型实例
+     * @throws OrtException 模型加载异常
+     */
+    public static SileroModel load(String modelPath, SessionProfile profile, Path cacheDir) throws OrtException {
+        return load(modelPath, profile, cacheDir, VadSampleRate.RATE_16K);
+    }
+
+    /**
+     * 按指定的采样率模式加载模型，模型的窗口大小和采样率输入都随之确定
+     *
+     * @param modelPath 模型路径
+     * @param profile 会话配置档
+     * @param cacheDir 优化模型缓存目录，为null时不缓存
+     * @param sampleRate 输入音频的采样率模式
+     * @return 可共享的模型实例
+     * @throws OrtException 模型加载异常
+     */
+    public static SileroModel load(String modelPath, SessionProfile profile, Path cacheDir,
+                                   VadSampleRate sampleRate) throws OrtException {
+        OrtEnvironment env = OrtEnvironment.getEnvironment();
+        Path cachedModel = cacheDir == null ? null : optimizedModelPath(modelPath, profile, cacheDir);
+
+        if (cachedModel != null && !Files.isRegularFile(cachedModel)) {
+            writeCache(env, modelPath, profile, cachedModel);
+        }
+        if (cachedModel != null && Files.isRegularFile(cachedModel)) {
+            try (OrtSession.SessionOptions options = profile.createOptions()) {
+                return new SileroModel(env, env.createSession(cachedModel.toString(), options), sampleRate);
+            } catch (OrtException e) {
+                System.err.println("加载优化模型缓存失败，改为加载原始模型: " + cachedModel + " (" + e.getMessage() + ")");
+            }
+        }
+
+        try (OrtSession.SessionOptions options = profile.createOptions()) {
+            return new SileroModel(env, env.createSession(modelPath, options), sampleRate);
+        }
+    }
+
+    /**
+     * 以 {@link #CACHE_OPT_LEVEL} 优化原始模型并写入缓存
+     * 先写入临时文件，会话创建成功后再原子替换，避免多个进程读到写了一半的缓存
+     */
+    private static void writeCache(OrtEnvironment env, String modelPath, SessionProfile profile, Path cachedModel) {
+        Path tempModel = cachedModel.resolveSibling(cachedModel.getFileName() + ".tmp-" + UUID.randomUUID());
+        try (OrtSession.SessionOptions options = profile.createOptions()) {
+            options.setOptimizationLevel(CACHE_OPT_LEVEL);
+            options.setOptimizedModelFilePath(tempModel.toString());
+            env.createSession(modelPath, options).close();
+            publishCache(tempModel, cachedModel);
+        } catch (OrtException e) {
+            System.err.println("生成优化模型缓存失败: " + e.getMessage());
+            try {
+                Files.deleteIfExists(tempModel);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * 缓存文件名由模型内容哈希、ONNX Runtime 版本、缓存优化级别和配置档共同决定，任一变化都会生成新的缓存
+     * @return 缓存路径，无法计算时返回null
+     */
+    private static Path optimizedModelPath(String modelPath, SessionProfile profile, Path cacheDir) {
+        try {
+            Files.createDirectories(cacheDir);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(Files.readAllBytes(Paths.get(modelPath)));
+            String ortVersion = OrtEnvironment.class.getPackage().getImplementationVersion();
+            digest.update(String.valueOf(ortVersion).getBytes(StandardCharsets.UTF_8));
+            digest.update(CACHE_OPT_LEVEL.name().getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder key = new StringBuilder();
+            byte[] hash = digest.digest();
+            for (int i = 0; i < 8; i++) {
+                key.append(String.format("%02x", hash[i]));
+            }
+            String modelName = Paths.get(modelPath).getFileName().toString().replaceFirst("\\.onnx$", "");
+            return cacheDir.resolve(modelName + "-" + profile.name().toLowerCase() + "-" + key + ".opt.onnx");
+        } catch (IOException | NoSuchAlgorithmException e) {
+            System.err.println("无法使用优化模型缓存: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void publishCache(Path tempModel, Path cachedModel) {
+        try {
+            if (Files.isRegularFile(tempModel)) {
+                Files.move(tempModel, cachedModel, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                System.out.println("优化模型已缓存: " + cachedModel);
+            }
+        } catch (IOException e) {
+            System.err.println("写入优化模型缓存失败: " + e.getMessage());
+            try {
+                Files.deleteIfExists(tempModel);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * 创建一路新的音频流，音频流持有自己的循环状态，仅供单个线程使用
+     * @return 音频流句柄
+     * @throws OrtException tensor创建异常
+     */
+    public VadStream newStream() throws OrtException {
+        return new VadStream(this);
+    }
+
+    OrtEnvironment env() {
+        return env;
+    }
+
+    /**
+     * OrtSession.run 本身是线程安全的，多个 VadStream 可以并发调用
+     */
+    OrtSession session() {
+        return session;
+    }
+
+    String scoreOutput() {
+        return scoreOutput;
+    }
+
+    String stateOutput() {
+        return stateOutput;
+    }
+
+    /**
+     * @return 每次推理的窗口样本数
+     */
+    public int getWindowSizeSamples() {
+        return sampleRate.getWindowSizeSamples();
+    }
+
+    /**
+     * @return 模型输入采样率（Hz）
+     */
+    public int getSampleRate() {
+        return sampleRate.getHertz();
+    }
+
+    /**
+     * @return 模型的采样率模式
+     */
+    public VadSampleRate getSampleRateMode() {
+        return sampleRate;
+    }
+
+    /**
+     * 关闭模型，调用前需保证所有音频流已不再推理
+     */
+    @Override
+    public void close() throws OrtException {
+        session.close();
+    }
+}
@@ -1,113 +1,186 @@
 package com.yren.study.vadDemo.vad;
 
 import java.util.*;
-import ai.onnxruntime.OnnxTensor;
-import ai.onnxruntime.OrtEnvironment;
 import ai.onnxruntime.OrtException;
-import ai.onnxruntime.OrtSession;
 import com.yren.study.vadDemo.result.VadResult;
+import com.yren.study.vadDemo.result.VadTimeline;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.file.Path;
 
 /**
+ * 单路音频的VAD检测入口
+ * 模型会话由 {@link SileroModel} 持有，循环状态由 {@link VadStream} 持有；
+ * 多路/多线程场景请共享同一个 SileroModel，并为每路音频创建各自的 VadStream
+ *
  * @author ChenYu ren
  * @date 2025/9/8
  */
 
 
 public class SileroVAD {
-    private OrtEnvironment env;
-    private OrtSession session;
-    private static final int WINDOW_SIZE_SAMPLES = 512;  // 32ms at 16kHz
     private static final float DEFAULT_THRESHOLD = 0.3f;  // 降低阈值以获得更敏感的检测
-    
-    // VAD状态变量 (2x1x128的状态tensor)
-    private float[][][] state = new float[2][1][128];
+
+    private SileroModel model;
+    private boolean ownsModel;
+    private VadStream stream;
+    // 通过模型目录加载时记录所用的变体，直接指定模型路径时为null
+    private ModelVariant variant;
 
     public void loadModel(String modelPath) throws OrtException {
-        env = OrtEnvironment.getEnvironment();
-        OrtSession.SessionOptions options = new OrtSession.SessionOptions();
-        session = env.createSession(modelPath, options);
+        useModel(SileroModel.load(modelPath));
+        ownsModel = true;
     }
 
-    public List<VadResult> detectVoiceActivity(float[] audioData) throws OrtException {
-        List<VadResult> results = new ArrayList<>();
+    /**
+     * 按指定的会话配置档加载模型
+     * @param modelPath 模型路径
+     * @param profile 会话配置档
+     * @param cacheDir 优化模型缓存目录，为null时不缓存
+     * @throws OrtException 模型加载异常
+     */
+    public void loadModel(String modelPath, SessionProfile profile, Path cacheDir) throws OrtException {
+        useModel(SileroModel.load(modelPath, profile, cacheDir));
+        ownsModel = true;
+    }
 
-        // 按窗口大小处理音频
-        for (int i = 0; i < audioData.length; i += WINDOW_SIZE_SAMPLES) {
-            int endIdx = Math.min(i + WINDOW_SIZE_SAMPLES, audioData.length);
-            float[] window = Arrays.copyOfRange(audioData, i, endIdx);
+    /**
+     * 按指定的采样率模式加载模型，8kHz模式直接处理窄带音频，窗口为256个样本
+     * @param modelPath 模型路径
+     * @param profile 会话配置档
+     * @param cacheDir 优化模型缓存目录，为null时不缓存
+     * @param sampleRate 输入音频的采样率模式
+     * @throws OrtException 模型加载异常
+     */
+    public void loadModel(String modelPath, SessionProfile profile, Path cacheDir,
+                          VadSampleRate sampleRate) throws OrtException {
+        useModel(SileroModel.load(modelPath, profile, cacheDir, sampleRate));
+        ownsModel = true;
+    }
 
-            // 如果窗口不足，用零填充
-            if (window.length < WINDOW_SIZE_SAMPLES) {
-                float[] paddedWindow = new float[WINDOW_SIZE_SAMPLES];
-                System.arraycopy(window, 0, paddedWindow, 0, window.length);
-                window = paddedWindow;
-            }
+    /**
+     * 从模型目录加载指定的模型变体
+     * @param modelDir 模型目录
+     * @param variant 模型变体
+     * @param profile 会话配置档
+     * @param cacheDir 优化模型缓存目录，为null时不缓存
+     * @param sampleRate 输入音频的采样率模式
+     * @throws OrtException 模型加载异常
+     * @throws IllegalArgumentException 模型目录下没有该变体的文件
+     */
+    public void loadModel(Path modelDir, ModelVariant variant, SessionProfile profile, Path cacheDir,
+                          VadSampleRate sampleRate) throws OrtException {
+        if (!variant.isAvailable(modelDir)) {
+            throw new IllegalArgumentException("模型变体文件不存在: " + variant.resolve(modelDir));
+        }
+        loadModel(variant.resolve(modelDir).toString(), profile, cacheDir, sampleRate);
+        this.variant = variant;
+    }
 
-            // 运行VAD推理
-            float vadScore = runInference(window);
+    /**
+     * 使用一个已加载的共享模型，close 时不会关闭该模型
+     * @param sharedModel 共享模型
+     * @throws OrtException tensor创建异常
+     */
+    public void useModel(SileroModel sharedModel) throws OrtException {
+        this.model = sharedModel;
+        this.ownsModel = false;
+        this.variant = null;
+        this.stream = sharedModel.newStream();
+    }
 
-            // 计算时间戳（秒）
-            float startTime = i / 16000.0f;
-            float endTime = endIdx / 16000.0f;
+    /**
+     * @return 只读的结果列表视图，底层为列式存储的 {@link VadTimeline}
+     */
+    public List<VadResult> detectVoiceActivity(float[] audioData) throws OrtException {
+        return detectVoiceTimeline(audioData).asList();
+    }
 
-            results.add(new VadResult(startTime, endTime, vadScore, vadScore > DEFAULT_THRESHOLD));
+    /**
+     * 检测整段音频，结果以列式时间线返回
+     */
+    public VadTimeline detectVoiceTimeline(float[] audioData) throws OrtException {
+        int windowSize = model.getWindowSizeSamples();
+        VadTimeline timeline = new VadTimeline(windowSize, model.getSampleRate(), DEFAULT_THRESHOLD,
+                audioData.length / windowSize + 1);
+
+        // 按窗口大小处理音频，时间戳按模型采样率换算
+        for (int i = 0; i < audioData.length; i += windowSize) {
+            int endIdx = Math.min(i + windowSize, audioData.length);
+
+            // 运行VAD推理（窗口不足时在输入缓冲区内补零）
+            float vadScore = stream.process(audioData, i);
+
+            // 时间戳由窗口下标推导
+            timeline.add(vadScore, endIdx - i);
         }
 
-        return results;
+        return timeline;
     }
 
     /**
-     * 推理核心代码
-     * @param audioWindow
-     * @return
-     * @throws OrtException
+     * 对单个窗口执行推理，窗口从 offset 开始，不足一个窗口时补零
+     * 状态在窗口之间延续，适用于流式调用
+     *
+     * @param audioData 音频数据
+     * @param offset 窗口起始位置
+     * @return VAD概率值
+     * @throws OrtException 推理异常
      */
-    private float runInference(float[] audioWindow) throws OrtException {
-        // 将一维数组重塑为二维数组
-        float[][] input2D = new float[1][audioWindow.length];
-        System.arraycopy(audioWindow, 0, input2D[0], 0, audioWindow.length);
-
-        // 创建音频输入tensor
-        OnnxTensor inputTensor = OnnxTensor.createTensor(env, input2D);
-        
-        // 创建采样率输入tensor (16000 Hz)
-        long[][] srInput = {{16000L}};
-        OnnxTensor srTensor = OnnxTensor.createTensor(env, srInput);
-        
-        // 创建状态tensor
-        OnnxTensor stateTensor = OnnxTensor.createTensor(env, state);
-
-        // 准备输入映射
-        Map<String, OnnxTensor> inputs = new HashMap<>();
-        inputs.put("input", inputTensor);
-        inputs.put("sr", srTensor);
-        inputs.put("state", stateTensor);
-
-        // 运行推理
-        try (OrtSession.Result result = session.run(inputs)) {
-            // 获取输出
-            float[][] output = (float[][]) result.get(0).getValue();
-            
-            // 更新状态 (如果模型返回新的状态)
-            if (result.size() > 1) {
-                state = (float[][][]) result.get(1).getValue();
-            }
-            
-            return output[0][0]; // VAD概率值
-        } finally {
-            inputTensor.close();
-            srTensor.close();
-            stateTensor.close();
-        }
+    public float processWindow(float[] audioData, int offset) throws OrtException {
+        return stream.process(audioData, offset);
+    }
+
+    /**
+     * 设置能量预门限，低于噪声底的窗口不再推理，为null时关闭
+     */
+    public void setEnergyGate(EnergyGate energyGate) {
+        stream.setEnergyGate(energyGate);
+    }
+
+    /**
+     * 重置VAD状态，用于开始处理一段新的音频流
+     */
+    public void resetState() {
+        stream.reset();
+    }
+
+    /**
+     * @return 当前使用的模型，可用于创建其他音频流
+     */
+    public SileroModel getModel() {
+        return model;
+    }
+
+    /**
+     * @return 加载的模型变体，直接指定模型路径或使用共享模型时为null
+     */
+    public ModelVariant getVariant() {
+        return variant;
+    }
+
+    /**
+     * @return 每次推理的窗口样本数（16kHz为512，8kHz为256）
+     */
+    public int getWindowSizeSamples() {
+        return model.getWindowSizeSamples();
+    }
+
+    /**
+     * @return 模型输入采样率（Hz）
+     */
+    public int getSampleRate() {
+        return model.getSampleRate();
+    }
+
+    /**
+     * @return 语音判定的默认阈值
+     */
+    public static float getDefaultThreshold() {
+        return DEFAULT_THRESHOLD;
     }
 
     public void close() throws OrtException {
-        if (session != null) session.close();
-        if (env != null) env.close();
+        if (stream != null) stream.close();
+        if (model != null && ownsModel) model.close();
     }
 }
@@ -0,0 +1,146 @@
+package com.yren.study.vadDemo.vad;
+
+import com.yren.study.vadDemo.result.SpeechChunk;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 流式语音片段发布器
+ * 由 {@link SegmentAudioRouter} 负责前置缓冲与片段判定，片段音频以 {@link SpeechChunk} 发布给订阅者：
+ * 片段一旦确认开始就发布起点（含前置填充，默认200ms）之后的音频，此后每个窗口判定完立即发布新增的音频，
+ * 片段结束时发布剩余音频和 END，下游延迟不超过一个窗口。
+ * <p>
+ * 基于 {@link SubmissionPublisher} 实现背压：每个订阅者的缓冲区有上限，
+ * AUDIO 数据块在缓冲区满时最多等待 offerTimeoutMillis，超时被丢弃，丢弃数随片段的 END 告知订阅者；
+ * START 与 END 阻塞等待直到投递成功，保证每个片段的 START/END 成对出现。
+ * writeAudio 与 accept 需在同一线程调用
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class SpeechSegmentPublisher implements Flow.Publisher<SpeechChunk>, AutoCloseable {
+    private static final int DEFAULT_PRE_ROLL_MS = 2000;
+    private static final int DEFAULT_SPEECH_PAD_MS = 200;
+    private static final int DEFAULT_BUFFER_CAPACITY = Flow.defaultBufferSize();
+    private static final long DEFAULT_OFFER_TIMEOUT_MILLIS = 50;
+
+    private final SubmissionPublisher<SpeechChunk> publisher;
+    private final SegmentAudioRouter router;
+    private final long offerTimeoutMillis;
+    private final LongAdder droppedChunks = new LongAdder();
+    // 当前片段被丢弃的 AUDIO 数据块数，丢弃回调在 offer 的调用线程中执行
+    private int segmentDroppedChunks;
+
+    /**
+     * @param sampleRate 采样率
+     * @param delegate 额外的片段事件回调，可为null
+     */
+    public SpeechSegmentPublisher(int sampleRate, SegmentListener delegate) {
+        this(sampleRate, delegate, sampleRate * DEFAULT_PRE_ROLL_MS / 1000, DEFAULT_SPEECH_PAD_MS,
+                ForkJoinPool.commonPool(), DEFAULT_BUFFER_CAPACITY, DEFAULT_OFFER_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param sampleRate 采样率
+     * @param delegate 额外的片段事件回调，可为null
+     * @param preRollSamples 前置环形缓冲区容量，需覆盖最短语音时长、前置填充与最短静音时长之和
+     * @param speechPadMs 片段前后的填充时长（毫秒），即片段在检测到的语音起点之前多带的音频
+     * @param executor 向订阅者投递数据的线程池
+     * @param maxBufferCapacity 每个订阅者的缓冲数据块上限
+     * @param offerTimeoutMillis 订阅者缓冲区满时的最长等待时间
+     */
+    public SpeechSegmentPublisher(int sampleRate, SegmentListener delegate, int preRollSamples, int speechPadMs,
+                                  Executor executor, int maxBufferCapacity, long offerTimeoutMillis) {
+        this.publisher = new SubmissionPublisher<>(executor, maxBufferCapacity);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.router = new SegmentAudioRouter(sampleRate, preRollSamples, speechPadMs, new SegmentAudioRouter.Sink() {
+            @Override
+            public void onStart(long segmentId, long startSample) {
+                segmentDroppedChunks = 0;
+                publisher.submit(new SpeechChunk(SpeechChunk.Type.START, segmentId, startSample, null));
+            }
+
+            @Override
+            public void onAudio(long segmentId, float[] samples, int length, long position) {
+                // 订阅者异步消费，必须复制出独立的数组
+                offerAudio(new SpeechChunk(SpeechChunk.Type.AUDIO, segmentId, position, Arrays.copyOf(samples, length)));
+            }
+
+            @Override
+            public void onEnd(long segmentId, long endSample) {
+                publisher.submit(new SpeechChunk(SpeechChunk.Type.END, segmentId, endSample, null,
+                        segmentDroppedChunks));
+            }
+        }, delegate);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super SpeechChunk> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * 写入原始音频，需与送入VAD的音频是同一条流、从同一位置开始
+     */
+    public void writeAudio(float[] samples, int offset, int length) {
+        router.writeAudio(samples, offset, length);
+    }
+
+    /**
+     * 输入一个窗口的VAD概率，并发布该窗口确认属于片段的音频
+     *
+     * @param score VAD概率值
+     * @param windowSamples 窗口前移的样本数
+     */
+    public void accept(float score, int windowSamples) {
+        router.accept(score, windowSamples);
+    }
+
+    /**
+     * 音频结束时调用，结束尚未关闭的片段
+     */
+    public void flush() {
+        router.flush();
+    }
+
+    private void offerAudio(SpeechChunk chunk) {
+        publisher.offer(chunk, offerTimeoutMillis, TimeUnit.MILLISECONDS, (subscriber, dropped) -> {
+            droppedChunks.increment();
+            segmentDroppedChunks++;
+            return false;
+        });
+    }
+
+    /**
+     * @return 当前是否处于已确认的语音片段中
+     */
+    public boolean isSpeech() {
+        return router.isSpeech();
+    }
+
+    /**
+     * @return 因订阅者处理不及而丢弃的 AUDIO 数据块数
+     */
+    public long getDroppedChunks() {
+        return droppedChunks.sum();
+    }
+
+    public int getSubscriberCount() {
+        return publisher.getNumberOfSubscribers();
+    }
+
+    /**
+     * 结束未关闭的片段并通知订阅者 onComplete
+     */
+    @Override
+    public void close() {
+        flush();
+        publisher.close();
+    }
+}
@@ -0,0 +1,187 @@
+package com.yren.study.vadDemo.vad;
+
+/**
+ * 流式语音片段检测器
+ * 每次输入一个窗口的VAD概率，使用开/关双阈值滞回判定，
+ * 满足最短语音时长后立即发出片段开始事件，满足最短静音时长后立即发出片段结束事件
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class StreamingSegmentDetector {
+    private static final float DEFAULT_ON_THRESHOLD = 0.3f;
+    private static final float DEFAULT_OFF_THRESHOLD = 0.15f;
+    private static final int DEFAULT_MIN_SPEECH_MS = 250;
+    private static final int DEFAULT_MIN_SILENCE_MS = 100;
+    static final int DEFAULT_SPEECH_PAD_MS = 30;
+
+    private final SegmentListener listener;
+    private final float onThreshold;
+    private final float offThreshold;
+    private final long minSpeechSamples;
+    private final long minSilenceSamples;
+    private final long speechPadSamples;
+
+    // 已输入的样本数
+    private long position = 0;
+    // 概率超过开阈值后进入语音状态
+    private boolean triggered = false;
+    // 是否已经发出片段开始事件
+    private boolean started = false;
+    // 当前语音的起始样本（未填充）
+    private long speechStart = 0;
+    // 进入静音的样本位置，-1表示未进入
+    private long silenceStart = -1;
+    // 上一个片段的结束位置，前置填充不会越过它
+    private long lastSegmentEnd = 0;
+    // 已发出开始事件的片段起始样本（含填充）
+    private long segmentStart = 0;
+
+    public StreamingSegmentDetector(int sampleRate, SegmentListener listener) {
+        this(sampleRate, listener, DEFAULT_SPEECH_PAD_MS);
+    }
+
+    /**
+     * @param sampleRate 采样率
+     * @param listener 片段事件回调
+     * @param speechPadMs 片段前后的填充时长（毫秒），其余参数使用默认值
+     */
+    public StreamingSegmentDetector(int sampleRate, SegmentListener listener, int speechPadMs) {
+        this(sampleRate, listener, DEFAULT_ON_THRESHOLD, DEFAULT_OFF_THRESHOLD,
+                DEFAULT_MIN_SPEECH_MS, DEFAULT_MIN_SILENCE_MS, speechPadMs);
+    }
+
+    /**
+     * @param sampleRate 采样率
+     * @param listener 片段事件回调
+     * @param onThreshold 进入语音的概率阈值
+     * @param offThreshold 退出语音的概率阈值，需不大于 onThreshold
+     * @param minSpeechMs 最短语音时长（毫秒），更短的语音会被丢弃
+     * @param minSilenceMs 最短静音时长（毫秒），更短的静音不会切分片段
+     * @param speechPadMs 片段前后的填充时长（毫秒）
+     */
+    public StreamingSegmentDetector(int sampleRate, SegmentListener listener,
+                                    float onThreshold, float offThreshold,
+                                    int minSpeechMs, int minSilenceMs, int speechPadMs) {
+        if (offThreshold > onThreshold) {
+            throw new IllegalArgumentException("关阈值不能大于开阈值: " + offThreshold + " > " + onThreshold);
+        }
+        this.listener = listener;
+        this.onThreshold = onThreshold;
+        this.offThreshold = offThreshold;
+        this.minSpeechSamples = (long) sampleRate * minSpeechMs / 1000;
+        this.minSilenceSamples = (long) sampleRate * minSilenceMs / 1000;
+        this.speechPadSamples = (long) sampleRate * speechPadMs / 1000;
+    }
+
+    /**
+     * 输入一个窗口的VAD概率
+     *
+     * @param score VAD概率值
+     * @param windowSamples 窗口的有效样本数
+     */
+    public void accept(float score, int windowSamples) {
+        long windowStart = position;
+        long windowEnd = position + windowSamples;
+        position = windowEnd;
+
+        if (score >= onThreshold) {
+            // 语音中短暂的静音被新的语音打断
+            silenceStart = -1;
+            if (!triggered) {
+                triggered = true;
+                speechStart = windowStart;
+            }
+        } else if (triggered && score < offThreshold && silenceStart < 0) {
+            silenceStart = windowStart;
+        }
+
+        if (!triggered) {
+            return;
+        }
+
+        long speechEnd = silenceStart >= 0 ? silenceStart : windowEnd;
+        if (!started && speechEnd - speechStart >= minSpeechSamples) {
+            started = true;
+            segmentStart = Math.max(lastSegmentEnd, speechStart - speechPadSamples);
+            listener.onSegmentStart(segmentStart);
+        }
+
+        if (silenceStart >= 0 && windowEnd - silenceStart >= minSilenceSamples) {
+            // 静音持续足够长，结束当前片段；过短的语音直接丢弃
+            if (started) {
+                long segmentEnd = Math.min(windowEnd, silenceStart + speechPadSamples);
+                listener.onSegmentEnd(segmentStart, segmentEnd);
+                lastSegmentEnd = segmentEnd;
+            }
+            triggered = false;
+            started = false;
+            silenceStart = -1;
+        }
+    }
+
+    /**
+     * 音频结束时调用，结束尚未关闭的片段
+     */
+    public void flush() {
+        if (triggered) {
+            long speechEnd = silenceStart >= 0 ? silenceStart : position;
+            if (!started && speechEnd - speechStart >= minSpeechSamples) {
+                started = true;
+                segmentStart = Math.max(lastSegmentEnd, speechStart - speechPadSamples);
+                listener.onSegmentStart(segmentStart);
+            }
+            if (started) {
+                long segmentEnd = Math.min(position, speechEnd + speechPadSamples);
+                listener.onSegmentEnd(segmentStart, segmentEnd);
+                lastSegmentEnd = segmentEnd;
+            }
+        }
+        triggered = false;
+        started = false;
+        silenceStart = -1;
+    }
+
+    /**
+     * 重置检测器，用于处理一段新的音频
+     */
+    public void reset() {
+        position = 0;
+        triggered = false;
+        started = false;
+        speechStart = 0;
+        silenceStart = -1;
+        lastSegmentEnd = 0;
+        segmentStart = 0;
+    }
+
+    /**
+     * @return 当前是否处于已确认的语音片段中
+     */
+    public boolean isSpeech() {
+        return started;
+    }
+
+    /**
+     * 片段进行中时，已确定属于该片段的样本上界
+     * 处于待确认的静音中时为静音起点加尾部填充（静音若持续足够长，片段就在此结束），否则为当前位置
+     */
+    public long getCommittedPosition() {
+        return silenceStart >= 0 ? Math.min(position, silenceStart + speechPadSamples) : position;
+    }
+
+    /**
+     * 片段开始事件发出时，片段起点（含填充）最多早于当前窗口起点的样本数：
+     * 确认语音前最多经历最短语音时长加一段不足最短静音时长的停顿，再加上前置填充
+     */
+    public long getMaxLookbackSamples() {
+        return minSpeechSamples + minSilenceSamples + speechPadSamples;
+    }
+
+    /**
+     * @return 已输入的样本数
+     */
+    public long getPosition() {
+        return position;
+    }
+}
@@ -0,0 +1,132 @@
+package com.yren.study.vadDemo.vad;
+
+import com.yren.study.vadDemo.audio.AudioPreprocessor;
+import com.yren.study.vadDemo.audio.WavFileWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * 恒定内存的端到端流式处理：解码 → 逐窗口VAD → 流式片段判定 → 人声片段直接写入wav
+ * 整条链路只持有一个窗口、前置环形缓冲区和写入块，内存占用与音频长度无关；
+ * 样本位置全部使用long，可以处理超过 Integer.MAX_VALUE 个样本的长录音
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class StreamingVadPipeline {
+    private static final int DEFAULT_PRE_ROLL_MS = 2000;
+
+    private final SileroModel model;
+    private final int preRollSamples;
+    private SegmentListener segmentListener;
+
+    private long totalSamples;
+    private long segmentCount;
+    private long voiceSamples;
+
+    public StreamingVadPipeline(SileroModel model) {
+        this(model, model.getSampleRate() * DEFAULT_PRE_ROLL_MS / 1000);
+    }
+
+    /**
+     * @param model 共享的VAD模型
+     * @param preRollSamples 前置环形缓冲区容量
+     */
+    public StreamingVadPipeline(SileroModel model, int preRollSamples) {
+        this.model = model;
+        this.preRollSamples = preRollSamples;
+    }
+
+    /**
+     * 设置片段事件回调，用于输出片段时间等信息，可为null
+     */
+    public void setSegmentListener(SegmentListener segmentListener) {
+        this.segmentListener = segmentListener;
+    }
+
+    /**
+     * 处理一个音频文件，人声片段依次写入输出wav，片段间插入静音间隔
+     *
+     * @param inputPath 输入音频路径
+     * @param outputPath 输出wav路径
+     * @param silenceGapSeconds 片段间的静音间隔（秒）
+     * @throws Exception 解码、推理或写入异常
+     */
+    public void process(String inputPath, String outputPath, float silenceGapSeconds) throws Exception {
+        int sampleRate = model.getSampleRate();
+        long gapSamples = (long) (silenceGapSeconds * sampleRate);
+        totalSamples = 0;
+        voiceSamples = 0;
+
+        try (VadStream stream = model.newStream();
+             WavFileWriter writer = new WavFileWriter(outputPath, sampleRate, 1)) {
+            SegmentAudioRouter router = new SegmentAudioRouter(sampleRate, preRollSamples, new SegmentAudioRouter.Sink() {
+                @Override
+                public void onStart(long segmentId, long startSample) {
+                    if (segmentId > 0 && gapSamples > 0) {
+                        write(() -> writer.writeSilence(gapSamples));
+                    }
+                }
+
+                @Override
+                public void onAudio(long segmentId, float[] samples, int length, long position) {
+                    write(() -> writer.write(samples, 0, length));
+                    voiceSamples += length;
+                }
+
+                @Override
+                public void onEnd(long segmentId, long endSample) {
+                }
+            }, segmentListener);
+
+            try {
+                totalSamples = new AudioPreprocessor(sampleRate).streamWindows(inputPath, model.getWindowSizeSamples(),
+                        (window, length, startSample) -> {
+                            router.writeAudio(window, 0, length);
+                            router.accept(stream.process(window, 0), length);
+                        });
+                router.flush();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            segmentCount = router.getSegmentCount();
+        }
+    }
+
+    private interface WavWrite {
+        void run() throws IOException;
+    }
+
+    /**
+     * 片段回调不能抛出受检异常，写入异常先包装，再在 process 中还原
+     */
+    private static void write(WavWrite action) {
+        try {
+            action.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return 上一次处理的输入样本数
+     */
+    public long getTotalSamples() {
+        return totalSamples;
+    }
+
+    /**
+     * @return 上一次处理得到的人声片段数
+     */
+    public long getSegmentCount() {
+        return segmentCount;
+    }
+
+    /**
+     * @return 上一次处理写出的人声样本数（不含静音间隔）
+     */
+    public long getVoiceSamples() {
+        return voiceSamples;
+    }
+}
@@ -0,0 +1,51 @@
+package com.yren.study.vadDemo.vad;
+
+/**
+ * Silero VAD 支持的输入采样率
+ * 同一个模型文件同时支持两种采样率，窗口样本数随采样率变化，窗口时长都是32ms；
+ * 电话等窄带音频使用8kHz模式可以直接推理，无需先上采样，每次推理的样本数也减半
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public enum VadSampleRate {
+    RATE_8K(8000, 256),
+    RATE_16K(16000, 512);
+
+    private final int hertz;
+    private final int windowSizeSamples;
+
+    VadSampleRate(int hertz, int windowSizeSamples) {
+        this.hertz = hertz;
+        this.windowSizeSamples = windowSizeSamples;
+    }
+
+    /**
+     * 按采样率数值查找
+     * @param hertz 采样率（Hz）
+     * @return 对应的采样率模式
+     * @throws IllegalArgumentException 模型不支持该采样率
+     */
+    public static VadSampleRate of(int hertz) {
+        for (VadSampleRate rate : values()) {
+            if (rate.hertz == hertz) {
+                return rate;
+            }
+        }
+        throw new IllegalArgumentException("Silero VAD 只支持8000或16000Hz: " + hertz);
+    }
+
+    /**
+     * @return 采样率（Hz）
+     */
+    public int getHertz() {
+        return hertz;
+    }
+
+    /**
+     * @return 每次推理的窗口样本数
+     */
+    public int getWindowSizeSamples() {
+        return windowSizeSamples;
+    }
+}
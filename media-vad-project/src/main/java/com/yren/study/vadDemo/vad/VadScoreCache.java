@@ -0,0 +1,216 @@
+package com.yren.study.vadDemo.vad;
+
+import com.yren.study.vadDemo.result.VadTimeline;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+
+/**
+ * VAD逐窗口概率的磁盘缓存
+ * 缓存键由音频文件内容的 SHA-256 与模型内容哈希、缓存格式版本、调用方给出的变体标识共同决定，
+ * 同一份音频重复调整片段提取参数时可以跳过解码后的推理，直接进入片段提取与合成。
+ * 缓存保存的是原始概率而非判定结果，阈值在加载时应用，因此阈值变化不需要重新推理。
+ * <p>
+ * 文件格式（小端序）：
+ * <pre>
+ * int   magic 'VADS'
+ * int   格式版本
+ * int   窗口样本数
+ * int   采样率
+ * long  总样本数
+ * int   窗口数 n
+ * int   保留
+ * float[n] 每个窗口的概率
+ * </pre>
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class VadScoreCache {
+    private static final int MAGIC = 0x53444156;  // "VADS" 小端序
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int HASH_BUFFER_BYTES = 1 << 20;
+    private static final String FILE_SUFFIX = ".vadscores";
+
+    private final Path cacheDir;
+    // 模型与变体的哈希，区分不同模型/前处理配置产生的概率
+    private final String configKey;
+
+    /**
+     * @param cacheDir 缓存目录
+     * @param modelPath 模型路径，模型内容变化时缓存自动失效
+     * @throws IOException 缓存目录创建或模型读取失败
+     */
+    public VadScoreCache(Path cacheDir, Path modelPath) throws IOException {
+        this(cacheDir, modelPath, "");
+    }
+
+    /**
+     * @param cacheDir 缓存目录
+     * @param modelPath 模型路径，模型内容变化时缓存自动失效
+     * @param variant 影响概率计算的其他配置（如能量预门限），不同变体的缓存互不共享
+     * @throws IOException 缓存目录创建或模型读取失败
+     */
+    public VadScoreCache(Path cacheDir, Path modelPath, String variant) throws IOException {
+        this(cacheDir, modelPath, VadSampleRate.RATE_16K, variant);
+    }
+
+    /**
+     * @param cacheDir 缓存目录
+     * @param modelPath 模型路径，模型内容变化时缓存自动失效
+     * @param sampleRate 推理使用的采样率模式，不同采样率的缓存互不共享
+     * @param variant 影响概率计算的其他配置（如能量预门限），不同变体的缓存互不共享
+     * @throws IOException 缓存目录创建或模型读取失败
+     */
+    public VadScoreCache(Path cacheDir, Path modelPath, VadSampleRate sampleRate, String variant) throws IOException {
+        this.cacheDir = Files.createDirectories(cacheDir);
+        MessageDigest digest = newDigest();
+        hashFile(digest, modelPath);
+        digest.update(("v" + FORMAT_VERSION + "/" + sampleRate.getWindowSizeSamples() + "/" + sampleRate.getHertz()
+                + "/" + variant).getBytes(StandardCharsets.UTF_8));
+        this.configKey = toHex(digest.digest(), 8);
+    }
+
+    /**
+     * 计算音频文件的内容哈希，作为缓存键
+     */
+    public String audioKey(Path audioFile) throws IOException {
+        MessageDigest digest = newDigest();
+        hashFile(digest, audioFile);
+        return toHex(digest.digest(), 32);
+    }
+
+    /**
+     * 读取缓存并按给定阈值构建时间线
+     *
+     * @param audioKey {@link #audioKey(Path)} 返回的键
+     * @param threshold 语音判定阈值
+     * @return 时间线，缓存不存在或已损坏时返回null
+     */
+    public VadTimeline load(String audioKey, float threshold) {
+        Path file = cacheFile(audioKey);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) {
+                throw new IOException("文件过短");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("格式不匹配");
+            }
+            int windowSize = mapped.getInt(8);
+            int sampleRate = mapped.getInt(12);
+            long totalSamples = mapped.getLong(16);
+            int windows = mapped.getInt(24);
+            if (windows < 0 || fileSize != HEADER_BYTES + 4L * windows
+                    || totalSamples > (long) windows * windowSize || totalSamples <= (long) (windows - 1) * windowSize) {
+                throw new IOException("长度不一致");
+            }
+
+            mapped.position(HEADER_BYTES);
+            FloatBuffer scores = mapped.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            VadTimeline timeline = new VadTimeline(windowSize, sampleRate, threshold, windows);
+            for (int i = 0; i < windows; i++) {
+                long start = (long) i * windowSize;
+                timeline.add(scores.get(i), (int) Math.min(windowSize, totalSamples - start));
+            }
+            return timeline;
+        } catch (IOException e) {
+            System.err.println("VAD缓存不可用，将重新推理: " + file + " (" + e.getMessage() + ")");
+            return null;
+        }
+    }
+
+    /**
+     * 写入缓存，先写临时文件再原子替换，并发写同一个键是安全的
+     */
+    public void store(String audioKey, VadTimeline timeline) throws IOException {
+        Path file = cacheFile(audioKey);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp-" + UUID.randomUUID());
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putInt(timeline.getWindowSize())
+                    .putInt(timeline.getSampleRate())
+                    .putLong(timeline.getTotalSamples())
+                    .putInt(timeline.size())
+                    .putInt(0)
+                    .flip();
+            writeFully(channel, header);
+
+            ByteBuffer chunk = ByteBuffer.allocateDirect(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < timeline.size(); i++) {
+                if (!chunk.hasRemaining()) {
+                    chunk.flip();
+                    writeFully(channel, chunk);
+                    chunk.clear();
+                }
+                chunk.putFloat(timeline.getScore(i));
+            }
+            chunk.flip();
+            writeFully(channel, chunk);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return 缓存文件路径
+     */
+    public Path cacheFile(String audioKey) {
+        return cacheDir.resolve(audioKey + "-" + configKey + FILE_SUFFIX);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void hashFile(MessageDigest digest, Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_BYTES);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("JVM不支持SHA-256", e);
+        }
+    }
+
+    private static String toHex(byte[] hash, int bytes) {
+        StringBuilder hex = new StringBuilder(bytes * 2);
+        for (int i = 0; i < bytes; i++) {
+            hex.append(String.format("%02x", hash[i]));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,193 @@
+package com.yren.study.vadDemo.vad;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单路音频流的VAD推理句柄
+ * 持有该路音频的循环状态和预分配的推理tensor，共享 {@link SileroModel} 中的会话；
+ * 一个 VadStream 只能被一个线程使用，不同的 VadStream 可以在不同线程中并发推理
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class VadStream implements AutoCloseable {
+    private static final int STATE_SIZE = 2 * SileroModel.STATE_UNITS;
+
+    private final SileroModel model;
+    private final int windowSize;
+
+    // 推理输入输出缓冲区（堆外内存，ORT直接引用，不做拷贝）
+    private final FloatBuffer inputBuffer;
+    private final FloatBuffer outputBuffer;
+    // VAD状态变量 (2x1x128的状态tensor)，两块缓冲区交替作为 state / stateN
+    private final FloatBuffer[] stateBuffers = new FloatBuffer[2];
+
+    private final OnnxTensor inputTensor;
+    private final OnnxTensor srTensor;
+    private final OnnxTensor outputTensor;
+    private final OnnxTensor[] stateTensors = new OnnxTensor[2];
+
+    // 预先构建好的输入/固定输出映射，下标对应当前作为输入的状态缓冲区
+    private final List<Map<String, OnnxTensor>> inputs = new ArrayList<>(2);
+    private final List<Map<String, OnnxTensor>> pinnedOutputs = new ArrayList<>(2);
+    private int currentState = 0;
+    private long processedSamples = 0;
+    // 可选的能量预门限，为null时每个窗口都推理
+    private EnergyGate energyGate;
+
+    VadStream(SileroModel model) throws OrtException {
+        this.model = model;
+        this.windowSize = model.getWindowSizeSamples();
+
+        inputBuffer = allocateFloats(windowSize);
+        inputTensor = OnnxTensor.createTensor(model.env(), inputBuffer, new long[]{1, windowSize});
+
+        // 采样率输入tensor (8000 或 16000 Hz)
+        LongBuffer srBuffer = ByteBuffer.allocateDirect(Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+        srBuffer.put(0, model.getSampleRate());
+        srTensor = OnnxTensor.createTensor(model.env(), srBuffer, new long[]{1, 1});
+
+        outputBuffer = allocateFloats(1);
+        outputTensor = OnnxTensor.createTensor(model.env(), outputBuffer, new long[]{1, 1});
+
+        for (int i = 0; i < stateTensors.length; i++) {
+            stateBuffers[i] = allocateFloats(STATE_SIZE);
+            stateTensors[i] = OnnxTensor.createTensor(model.env(), stateBuffers[i],
+                    new long[]{2, 1, SileroModel.STATE_UNITS});
+        }
+
+        for (int i = 0; i < stateTensors.length; i++) {
+            Map<String, OnnxTensor> input = new HashMap<>();
+            input.put("input", inputTensor);
+            input.put("sr", srTensor);
+            input.put("state", stateTensors[i]);
+            inputs.add(input);
+
+            // 新状态直接写入另一块状态缓冲区，下一个窗口再交换角色
+            Map<String, OnnxTensor> output = new HashMap<>();
+            output.put(model.scoreOutput(), outputTensor);
+            output.put(model.stateOutput(), stateTensors[1 - i]);
+            pinnedOutputs.add(output);
+        }
+    }
+
+    private static FloatBuffer allocateFloats(int size) {
+        return ByteBuffer.allocateDirect(size * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    /**
+     * 对单个窗口执行推理，窗口从 offset 开始，不足一个窗口时补零
+     * 状态在窗口之间延续
+     *
+     * @param audioData 音频数据
+     * @param offset 窗口起始位置
+     * @return VAD概率值
+     * @throws OrtException 推理异常
+     */
+    public float process(float[] audioData, int offset) throws OrtException {
+        int length = Math.max(0, Math.min(windowSize, audioData.length - offset));
+        if (energyGate != null && energyGate.isSilent(audioData, offset, length)) {
+            skipInference(length);
+            return 0f;
+        }
+        return runInference(audioData, offset, length);
+    }
+
+    /**
+     * 能量门限判定为静音时跳过推理，按门限配置清零或衰减循环状态
+     */
+    private void skipInference(int length) {
+        FloatBuffer state = stateBuffers[currentState];
+        if (energyGate.getStateMode() == EnergyGate.StateMode.RESET) {
+            for (int i = 0; i < STATE_SIZE; i++) {
+                state.put(i, 0f);
+            }
+        } else {
+            float decayFactor = energyGate.getDecayFactor();
+            for (int i = 0; i < STATE_SIZE; i++) {
+                state.put(i, state.get(i) * decayFactor);
+            }
+        }
+        processedSamples += length;
+    }
+
+    /**
+     * 推理核心代码
+     * 输入、采样率、状态与输出均复用预分配的堆外tensor，状态在两块缓冲区之间交替
+     */
+    private float runInference(float[] audioData, int offset, int length) throws OrtException {
+        // 写入音频输入，不足部分补零
+        inputBuffer.clear();
+        inputBuffer.put(audioData, offset, length);
+        while (inputBuffer.hasRemaining()) {
+            inputBuffer.put(0f);
+        }
+
+        // 运行推理，output 与 stateN 直接写入固定的输出tensor
+        OrtSession session = model.session();
+        try (OrtSession.Result ignored = session.run(inputs.get(currentState), pinnedOutputs.get(currentState))) {
+            currentState = 1 - currentState;
+            processedSamples += length;
+            return outputBuffer.get(0); // VAD概率值
+        }
+    }
+
+    /**
+     * 重置VAD状态，用于开始处理一段新的音频
+     */
+    public void reset() {
+        for (FloatBuffer stateBuffer : stateBuffers) {
+            for (int i = 0; i < STATE_SIZE; i++) {
+                stateBuffer.put(i, 0f);
+            }
+        }
+        currentState = 0;
+        processedSamples = 0;
+    }
+
+    /**
+     * 设置能量预门限，为null时关闭
+     */
+    public void setEnergyGate(EnergyGate energyGate) {
+        this.energyGate = energyGate;
+    }
+
+    public EnergyGate getEnergyGate() {
+        return energyGate;
+    }
+
+    /**
+     * @return 已经处理的样本数，用于计算时间戳
+     */
+    public long getProcessedSamples() {
+        return processedSamples;
+    }
+
+    /**
+     * @return 所属的共享模型
+     */
+    public SileroModel getModel() {
+        return model;
+    }
+
+    @Override
+    public void close() {
+        inputTensor.close();
+        srTensor.close();
+        outputTensor.close();
+        for (OnnxTensor stateTensor : stateTensors) {
+            stateTensor.close();
+        }
+    }
+}
@@ -5,6 +5,7 @@ package com.yren.study.vadDemo.vad;
  * @date 2025/9/8
  */
 import com.yren.study.vadDemo.result.VadResult;
+import com.yren.study.vadDemo.result.VadTimeline;
 import com.yren.study.vadDemo.result.VoiceSegment;
 
 import java.util.*;
@@ -47,6 +48,60 @@ public class VoiceSegmentExtractor {
 
         return segments;
     }
-}
 
+    /**
+     * 基于列式时间线提取语音片段，直接按判定位图跳过连续的语音/静音窗口
+     */
+    public List<VoiceSegment> extractVoiceSegments(VadTimeline timeline, float minSegmentDuration) {
+        List<VoiceSegment> segments = new ArrayList<>();
+
+        int start = timeline.nextVoiceWindow(0);
+        while (start >= 0) {
+            // [start, end) 为一段连续的语音窗口
+            int end = timeline.nextSilenceWindow(start);
+            float segmentStart = timeline.getStartTime(start);
+            float segmentEnd = timeline.getEndTime(end - 1);
+            float duration = segmentEnd - segmentStart;
+            if (duration >= minSegmentDuration) {
+                segments.add(new VoiceSegment(segmentStart, segmentEnd, duration));
+            }
+            start = end < timeline.size() ? timeline.nextVoiceWindow(end) : -1;
+        }
+
+        return segments;
+    }
+
+    /**
+     * 基于列式时间线，使用 {@link StreamingSegmentDetector} 的双阈值滞回规则提取语音片段
+     *
+     * @param onThreshold 进入语音的概率阈值
+     * @param offThreshold 退出语音的概率阈值
+     * @param minSpeechMs 最短语音时长（毫秒）
+     * @param minSilenceMs 最短静音时长（毫秒）
+     * @param speechPadMs 片段前后的填充时长（毫秒）
+     */
+    public List<VoiceSegment> extractVoiceSegments(VadTimeline timeline, float onThreshold, float offThreshold,
+                                                   int minSpeechMs, int minSilenceMs, int speechPadMs) {
+        List<VoiceSegment> segments = new ArrayList<>();
+        float sampleRate = timeline.getSampleRate();
+        StreamingSegmentDetector detector = new StreamingSegmentDetector(timeline.getSampleRate(),
+                new SegmentListener() {
+                    @Override
+                    public void onSegmentStart(long startSample) {
+                    }
+
+                    @Override
+                    public void onSegmentEnd(long startSample, long endSample) {
+                        float startTime = startSample / sampleRate;
+                        float endTime = endSample / sampleRate;
+                        segments.add(new VoiceSegment(startTime, endTime, endTime - startTime));
+                    }
+                }, onThreshold, offThreshold, minSpeechMs, minSilenceMs, speechPadMs);
 
+        for (int i = 0; i < timeline.size(); i++) {
+            detector.accept(timeline.getScore(i), (int) (timeline.getEndSample(i) - timeline.getStartSample(i)));
+        }
+        detector.flush();
+        return segments;
+    }
+}
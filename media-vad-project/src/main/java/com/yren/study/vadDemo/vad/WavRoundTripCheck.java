@@ -0,0 +1,122 @@
+package com.yren.study.vadDemo.vad;
+
+import com.yren.study.vadDemo.audio.PcmWavFile;
+import com.yren.study.vadDemo.audio.WavFileWriter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * WAV写入往返检查程序
+ * 用 {@link WavFileWriter} 写出跨越多个写入块、含静音段的音频，再用 {@link PcmWavFile} 读回，
+ * 检查文件长度、头部字段和每个样本是否与写入时一致；
+ * 另外把data大小改写为流式写出时的占位值（0 / 0xFFFFFFFF），检查读取时以文件实际长度为准
+ * 用法: WavRoundTripCheck
+ *
+ * @author ChenYu ren
+ * @date 2025/9/8
+ */
+public class WavRoundTripCheck {
+
+    private static final int SAMPLE_RATE = 16000;
+    private static final int HEADER_BYTES = 44;
+    // data子块大小字段在44字节头部中的偏移
+    private static final int DATA_SIZE_OFFSET = 40;
+    // PCM16量化误差上限（半个量化步长，留一点余量）
+    private static final float MAX_SAMPLE_ERROR = 1.5f / 32767f;
+
+    public static void main(String[] args) throws Exception {
+        check(1000, 0);
+        // 超过写入块大小（8192样本），并在中间插入静音
+        check(20000, 3000);
+        checkUnknownDataSize(0);
+        checkUnknownDataSize(0xFFFFFFFF);
+        System.out.println("✓ WAV写入与读回一致");
+    }
+
+    private static void check(int voiceSamples, int silenceSamples) throws Exception {
+        float[] audio = new float[voiceSamples];
+        for (int i = 0; i < audio.length; i++) {
+            audio[i] = (float) (0.5 * Math.sin(2 * Math.PI * 440 * i / SAMPLE_RATE));
+        }
+        int half = voiceSamples / 2;
+        int totalSamples = voiceSamples + silenceSamples;
+
+        Path file = Files.createTempFile("wav-round-trip", ".wav");
+        try {
+            try (WavFileWriter writer = new WavFileWriter(file.toString(), SAMPLE_RATE, 1)) {
+                writer.write(audio, 0, half);
+                writer.writeSilence(silenceSamples);
+                writer.write(audio, half, voiceSamples - half);
+            }
+
+            long expectedBytes = HEADER_BYTES + totalSamples * 2L;
+            if (Files.size(file) != expectedBytes) {
+                fail("文件长度错误: " + Files.size(file) + "，应为 " + expectedBytes);
+            }
+
+            float[] read;
+            try (PcmWavFile wav = PcmWavFile.tryOpen(file.toString())) {
+                if (wav == null) {
+                    fail("写出的文件不是有效的PCM16 WAV");
+                }
+                if (wav.getSampleRate() != SAMPLE_RATE || wav.getChannels() != 1) {
+                    fail("头部格式错误: " + wav.getSampleRate() + "Hz, " + wav.getChannels() + " 声道");
+                }
+                if (wav.getSampleCount() != totalSamples) {
+                    fail("头部样本数错误: " + wav.getSampleCount() + "，应为 " + totalSamples);
+                }
+                read = wav.readAll();
+            }
+            if (read.length != totalSamples) {
+                fail("读回样本数错误: " + read.length + "，应为 " + totalSamples);
+            }
+
+            for (int i = 0; i < totalSamples; i++) {
+                float expected = i < half ? audio[i]
+                        : i < half + silenceSamples ? 0f : audio[i - silenceSamples];
+                if (Math.abs(read[i] - expected) > MAX_SAMPLE_ERROR) {
+                    fail("第 " + i + " 个样本不一致: " + read[i] + "，应为 " + expected);
+                }
+            }
+            System.out.printf("%d 个样本（含 %d 个静音样本）往返一致%n", totalSamples, silenceSamples);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void checkUnknownDataSize(int placeholder) throws Exception {
+        int totalSamples = 5000;
+        Path file = Files.createTempFile("wav-unknown-size", ".wav");
+        try {
+            try (WavFileWriter writer = new WavFileWriter(file.toString(), SAMPLE_RATE, 1)) {
+                writer.writeSilence(totalSamples);
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                ByteBuffer size = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, placeholder);
+                channel.write(size, DATA_SIZE_OFFSET);
+            }
+            try (PcmWavFile wav = PcmWavFile.tryOpen(file.toString())) {
+                if (wav == null) {
+                    fail(String.format("data大小为 0x%08X 时无法打开", placeholder));
+                }
+                if (wav.getSampleCount() != totalSamples) {
+                    fail(String.format("data大小为 0x%08X 时样本数错误: %d，应为 %d",
+                            placeholder, wav.getSampleCount(), totalSamples));
+                }
+            }
+            System.out.printf("data大小为 0x%08X 时按文件长度读取 %d 个样本%n", placeholder, totalSamples);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void fail(String message) {
+        System.err.println("❌ " + message);
+        System.exit(1);
+    }
+}